@@ -0,0 +1,148 @@
+package dev.creoii.luckyblock.benchmark;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import dev.creoii.luckyblock.LuckyBlockContainer;
+import dev.creoii.luckyblock.LuckyBlockManager;
+import dev.creoii.luckyblock.LuckyBlockMod;
+import dev.creoii.luckyblock.outcome.CompiledOutcome;
+import dev.creoii.luckyblock.outcome.Outcome;
+import dev.creoii.luckyblock.outcome.OutcomeType;
+import dev.creoii.luckyblock.util.shape.ShapeType;
+import dev.creoii.luckyblock.util.vec.VecProviderType;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Boots just enough of the game for outcomes to be decoded outside of a server: the vanilla registries,
+ * the lucky registries and the containers bundled in {@code data}, with their outcomes compiled as a reload would.
+ */
+public final class BenchmarkBootstrap {
+    /**
+     * An empty container that benchmarks can fill with synthetic packs.
+     */
+    public static final String SYNTHETIC_NAMESPACE = "benchmark";
+    private static boolean initialized;
+
+    private BenchmarkBootstrap() {
+    }
+
+    public static synchronized void init() {
+        if (initialized)
+            return;
+
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+        OutcomeType.init();
+        ShapeType.init();
+        VecProviderType.init();
+        LuckyBlockMod.init(new BenchmarkLuckyBlockManager());
+
+        for (LuckyBlockContainer container : LuckyBlockMod.luckyBlockManager.getAllContainers()) {
+            String namespace = container.getId().getNamespace();
+            if (namespace.equals(SYNTHETIC_NAMESPACE))
+                continue;
+
+            Map<Identifier, CompiledOutcome> random = new LinkedHashMap<>();
+            Map<Identifier, CompiledOutcome> nonrandom = new LinkedHashMap<>();
+            readOutcomes(namespace).forEach((id, json) -> {
+                CompiledOutcome outcome = CompiledOutcome.compile(id, json);
+                if (id.getPath().startsWith("nonrandom/"))
+                    nonrandom.put(id, outcome);
+                else random.put(id, outcome);
+            });
+            container.setOutcomes(LuckyBlockContainer.Outcomes.create(random, nonrandom));
+        }
+        initialized = true;
+    }
+
+    /**
+     * @return a context without a world, which is all templates and shapes need
+     */
+    public static Outcome.Context createContext(long seed) {
+        return new Outcome.Context(null, BlockPos.ORIGIN, Blocks.AIR.getDefaultState(), null, seed);
+    }
+
+    /**
+     * @return every outcome file bundled under {@code data/<namespace>/outcomes}, in path order
+     */
+    public static Map<Identifier, JsonObject> readOutcomes(String namespace) {
+        Path root = getDataRoot().resolve(namespace).resolve("outcomes");
+        Map<Identifier, JsonObject> outcomes = new LinkedHashMap<>();
+        if (!Files.isDirectory(root))
+            return outcomes;
+
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.filter(path -> path.toString().endsWith(".json")).sorted().toList()) {
+                String name = root.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+                JsonElement element = JsonParser.parseString(Files.readString(path));
+                if (element.isJsonObject())
+                    outcomes.put(new Identifier(namespace, name.substring(0, name.length() - ".json".length())), element.getAsJsonObject());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read outcomes of '" + namespace + "'", e);
+        }
+        return outcomes;
+    }
+
+    /**
+     * @return the {@code data} directory of the common resources, whether they are on the classpath as a directory or a jar
+     */
+    public static Path getDataRoot() {
+        URL url = LuckyBlockMod.class.getResource("/data/" + LuckyBlockMod.NAMESPACE + "/" + LuckyBlockManager.CONTAINER_FILE);
+        if (url == null)
+            throw new IllegalStateException("Lucky block resources are not on the classpath");
+
+        try {
+            URI uri = url.toURI();
+            if (uri.getScheme().equals("jar")) {
+                try {
+                    FileSystems.newFileSystem(uri, Map.of());
+                } catch (FileSystemAlreadyExistsException ignored) {
+                }
+            }
+            return Path.of(uri).getParent().getParent();
+        } catch (URISyntaxException | IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Discovers the bundled containers the same way a platform would, from a single data source, and adds the synthetic container.
+     */
+    private static final class BenchmarkLuckyBlockManager extends LuckyBlockManager {
+        @Override
+        public Map<String, LuckyBlockContainer> init() {
+            Map<String, LuckyBlockContainer> containers = new LinkedHashMap<>(super.init());
+            containers.put(SYNTHETIC_NAMESPACE, new LuckyBlockContainer(new Identifier(SYNTHETIC_NAMESPACE, "lucky_block"), true, LuckyBlockContainer.Settings.DEFAULT, new LinkedHashMap<>()));
+            return containers;
+        }
+
+        @Override
+        public List<DataSource> getDataSources() {
+            return List.of(new DataSource(LuckyBlockMod.NAMESPACE, getDataRoot(), null));
+        }
+
+        @Override
+        public List<String> getIgnoredMods() {
+            return List.of();
+        }
+    }
+}
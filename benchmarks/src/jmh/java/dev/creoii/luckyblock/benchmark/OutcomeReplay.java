@@ -0,0 +1,167 @@
+package dev.creoii.luckyblock.benchmark;
+
+import dev.creoii.luckyblock.LuckyBlockContainer;
+import dev.creoii.luckyblock.LuckyBlockMod;
+import dev.creoii.luckyblock.outcome.CompiledOutcome;
+import dev.creoii.luckyblock.outcome.Outcome;
+import dev.creoii.luckyblock.outcome.OutcomeType;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays outcomes against a {@link RecordingWorld}, without a server, a network or a client.
+ * Every iteration breaks a fresh lucky block with its own seeded random, so two runs of the same outcome are identical.
+ * <p>
+ * Run with {@code ./gradlew :benchmarks:replay --args="[-n <iterations>] [<outcome id or namespace>...]"},
+ * by default every outcome of the {@code lucky} and {@code test} packs is replayed.
+ */
+public final class OutcomeReplay {
+    private static final BlockPos POS = new BlockPos(0, 64, 0);
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final RecordingWorld world = RecordingWorld.create(0L);
+
+    public RecordingWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * Runs the outcome once, skipping its delay.
+     * @return the outcome that ran, or null if it could not be decoded
+     */
+    @Nullable
+    public Outcome runOnce(CompiledOutcome compiled, long seed) {
+        world.reset();
+        Outcome.Context context = new Outcome.Context(world, POS, Blocks.AIR.getDefaultState(), null, seed);
+        Outcome outcome = compiled.get(context);
+        if (outcome != null)
+            outcome.run(context);
+        return outcome;
+    }
+
+    /**
+     * Replays the outcome, after running it as many times as warmup.
+     */
+    public Result replay(Identifier id, CompiledOutcome compiled, int warmup, int iterations) {
+        OutcomeType type = null;
+        try {
+            for (int i = 0; i < warmup; ++i) {
+                runOnce(compiled, i);
+            }
+
+            long blockWrites = 0, entities = 0, particles = 0, sounds = 0;
+            long allocated = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; ++i) {
+                Outcome outcome = runOnce(compiled, warmup + i);
+                if (outcome == null)
+                    return Result.failed(id, null, "could not be decoded");
+
+                type = outcome.getType();
+                blockWrites += world.getBlockWrites();
+                entities += world.getEntities();
+                particles += world.getParticles();
+                sounds += world.getSounds();
+            }
+            long nanos = System.nanoTime() - start;
+            allocated = THREADS.getCurrentThreadAllocatedBytes() - allocated;
+            return new Result(id, type, iterations, nanos, allocated, blockWrites, entities, particles, sounds, null);
+        } catch (RuntimeException e) {
+            return Result.failed(id, type, e.toString());
+        }
+    }
+
+    public static void main(String[] args) {
+        int iterations = 1000;
+        List<String> targets = new ArrayList<>();
+        for (int i = 0; i < args.length; ++i) {
+            if (args[i].equals("-n") && i + 1 < args.length)
+                iterations = Integer.parseInt(args[++i]);
+            else targets.add(args[i]);
+        }
+        if (targets.isEmpty())
+            targets = List.of(LuckyBlockMod.NAMESPACE, "test");
+
+        BenchmarkBootstrap.init();
+        OutcomeReplay replay = new OutcomeReplay();
+        List<Result> results = new ArrayList<>();
+        for (String target : targets) {
+            Identifier id = target.contains(":") ? Identifier.tryParse(target) : null;
+            String namespace = id != null ? id.getNamespace() : target;
+            LuckyBlockContainer container = LuckyBlockMod.luckyBlockManager.getContainer(namespace);
+            if (container == null) {
+                System.err.println("Unknown lucky block container '" + namespace + "'");
+                continue;
+            }
+
+            Map<Identifier, CompiledOutcome> outcomes = container.getOutcomes().byId();
+            if (id != null) {
+                CompiledOutcome outcome = outcomes.get(id);
+                if (outcome == null)
+                    System.err.println("Unknown outcome '" + id + "'");
+                else results.add(replay.replay(id, outcome, Math.max(iterations / 10, 1), iterations));
+            } else {
+                for (Map.Entry<Identifier, CompiledOutcome> entry : outcomes.entrySet()) {
+                    results.add(replay.replay(entry.getKey(), entry.getValue(), Math.max(iterations / 10, 1), iterations));
+                }
+            }
+        }
+        print(results);
+    }
+
+    private static void print(List<Result> results) {
+        System.out.printf("%-48s %-16s %12s %12s %12s %12s %12s %12s%n", "outcome", "type", "ops/s", "B/op", "blocks/op", "entities/op", "particles/op", "sounds/op");
+        Map<OutcomeType, Result> byType = new LinkedHashMap<>();
+        List<Result> failed = new ArrayList<>();
+        for (Result result : results) {
+            if (result.error() != null) {
+                failed.add(result);
+                continue;
+            }
+
+            System.out.printf("%-48s %-16s %12.0f %12d %12.1f %12.1f %12.1f %12.1f%n", result.id(), getTypeName(result.type()), result.opsPerSecond(), result.allocated() / result.iterations(),
+                    (double) result.blockWrites() / result.iterations(), (double) result.entities() / result.iterations(), (double) result.particles() / result.iterations(), (double) result.sounds() / result.iterations());
+            byType.merge(result.type(), result, Result::merge);
+        }
+
+        System.out.println();
+        System.out.printf("%-16s %12s %12s %12s%n", "type", "ops", "ops/s", "B/op");
+        byType.forEach((type, result) -> System.out.printf("%-16s %12d %12.0f %12d%n", getTypeName(type), result.iterations(), result.opsPerSecond(), result.allocated() / result.iterations()));
+
+        if (!failed.isEmpty()) {
+            System.out.println();
+            System.out.println(failed.size() + " outcomes could not be replayed:");
+            failed.forEach(result -> System.out.println("  " + result.id() + ": " + result.error()));
+        }
+    }
+
+    private static String getTypeName(@Nullable OutcomeType type) {
+        Identifier id = type != null ? LuckyBlockMod.OUTCOME_TYPES.getId(type) : null;
+        return id != null ? id.toString() : "?";
+    }
+
+    /**
+     * The cost and the recorded effects of replaying one outcome.
+     * @param error why the outcome could not be replayed, or null if it was
+     */
+    public record Result(Identifier id, @Nullable OutcomeType type, int iterations, long nanos, long allocated, long blockWrites, long entities, long particles, long sounds, @Nullable String error) {
+        static Result failed(Identifier id, @Nullable OutcomeType type, String error) {
+            return new Result(id, type, 0, 0L, 0L, 0L, 0L, 0L, 0L, error);
+        }
+
+        public double opsPerSecond() {
+            return nanos > 0L ? iterations * 1e9d / nanos : 0d;
+        }
+
+        Result merge(Result other) {
+            return new Result(id, type, iterations + other.iterations, nanos + other.nanos, allocated + other.allocated, blockWrites + other.blockWrites, entities + other.entities, particles + other.particles, sounds + other.sounds, null);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package dev.creoii.luckyblock.benchmark;
+
+import dev.creoii.luckyblock.LuckyBlockMod;
+import dev.creoii.luckyblock.outcome.CompiledOutcome;
+import net.minecraft.util.Identifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a bundled outcome against a {@link RecordingWorld}, the throughput baseline for the outcomes that write to the world.
+ * Any outcome that runs without a player or a server can be passed with {@code -Pjmh.outcome=<id>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OutcomeReplayBenchmark {
+    @Param({"test:test_block", "test:test_item", "test:test_entity", "lucky:saddles", "lucky:lucky_mobs"})
+    public String outcome;
+    private OutcomeReplay replay;
+    private CompiledOutcome compiled;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkBootstrap.init();
+        Identifier id = new Identifier(outcome);
+        compiled = LuckyBlockMod.OUTCOME_MANAGER.getOutcomeById(id);
+        if (compiled == null)
+            throw new IllegalArgumentException("Unknown outcome '" + id + "'");
+
+        replay = new OutcomeReplay();
+        if (replay.runOnce(compiled, 0L) == null)
+            throw new IllegalArgumentException("Outcome '" + id + "' could not be decoded");
+    }
+
+    @Benchmark
+    public Object run() {
+        return replay.runOnce(compiled, ++seed);
+    }
+}
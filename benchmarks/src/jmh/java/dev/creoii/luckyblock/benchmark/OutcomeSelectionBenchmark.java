@@ -0,0 +1,61 @@
+package dev.creoii.luckyblock.benchmark;
+
+import com.google.gson.JsonObject;
+import dev.creoii.luckyblock.LuckyBlockContainer;
+import dev.creoii.luckyblock.LuckyBlockMod;
+import dev.creoii.luckyblock.outcome.CompiledOutcome;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.random.LocalRandom;
+import net.minecraft.util.math.random.Random;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples a random outcome from a synthetic pack, the first thing every break does.
+ * The pack is rebuilt for each trial, so the per-luck tables are built during warmup like on a fresh server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OutcomeSelectionBenchmark {
+    @Param({"10", "100", "1000"})
+    public int packSize;
+    @Param({"-100", "0", "100"})
+    public int luck;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkBootstrap.init();
+        random = new LocalRandom(0L);
+
+        // spread luck and chance the way real packs do, most outcomes neutral with a few weighted towards either end
+        Map<Identifier, CompiledOutcome> outcomes = new LinkedHashMap<>();
+        Random packRandom = new LocalRandom(packSize);
+        for (int i = 0; i < packSize; ++i) {
+            JsonObject json = new JsonObject();
+            json.addProperty("type", "lucky:none");
+            json.addProperty("luck", packRandom.nextBetween(-2, 2));
+            json.addProperty("chance", 1f - packRandom.nextFloat() * .9f);
+            Identifier id = new Identifier(BenchmarkBootstrap.SYNTHETIC_NAMESPACE, "outcome_" + i);
+            outcomes.put(id, CompiledOutcome.compile(id, json));
+        }
+        LuckyBlockMod.luckyBlockManager.getContainer(BenchmarkBootstrap.SYNTHETIC_NAMESPACE).setOutcomes(LuckyBlockContainer.Outcomes.create(outcomes, Map.of()));
+    }
+
+    @Benchmark
+    public Object getRandomOutcome() {
+        return LuckyBlockMod.OUTCOME_MANAGER.getRandomOutcome(BenchmarkBootstrap.SYNTHETIC_NAMESPACE, random, luck, null);
+    }
+}
@@ -0,0 +1,65 @@
+package dev.creoii.luckyblock.benchmark;
+
+import com.google.gson.JsonObject;
+import dev.creoii.luckyblock.LuckyBlockMod;
+import dev.creoii.luckyblock.outcome.CompiledOutcome;
+import dev.creoii.luckyblock.outcome.Outcome;
+import net.minecraft.util.Identifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns every bundled {@code data/lucky} outcome into an {@link Outcome}, both from raw json through
+ * {@link dev.creoii.luckyblock.outcome.OutcomeManager#parseJsonOutcome} and from the {@link CompiledOutcome} a reload keeps.
+ * Outcomes that fail to decode without a world are skipped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParseOutcomeBenchmark {
+    private final List<JsonObject> outcomes = new ArrayList<>();
+    private final List<CompiledOutcome> compiled = new ArrayList<>();
+    private Outcome.Context context;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkBootstrap.init();
+        context = BenchmarkBootstrap.createContext(0L);
+        for (Map.Entry<Identifier, JsonObject> entry : BenchmarkBootstrap.readOutcomes(LuckyBlockMod.NAMESPACE).entrySet()) {
+            try {
+                if (LuckyBlockMod.OUTCOME_MANAGER.parseJsonOutcome(entry.getValue(), context) == null)
+                    continue;
+            } catch (RuntimeException e) {
+                continue;
+            }
+            outcomes.add(entry.getValue());
+            compiled.add(CompiledOutcome.compile(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    @Benchmark
+    public void parseJsonOutcome(Blackhole blackhole) {
+        for (JsonObject outcome : outcomes) {
+            blackhole.consume(LuckyBlockMod.OUTCOME_MANAGER.parseJsonOutcome(outcome, context));
+        }
+    }
+
+    @Benchmark
+    public void getCompiled(Blackhole blackhole) {
+        for (CompiledOutcome outcome : compiled) {
+            blackhole.consume(outcome.get(context));
+        }
+    }
+}
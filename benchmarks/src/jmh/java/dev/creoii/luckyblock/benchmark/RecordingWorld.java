@@ -0,0 +1,314 @@
+package dev.creoii.luckyblock.benchmark;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.component.type.MapIdComponent;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.item.map.MapState;
+import net.minecraft.particle.ParticleEffect;
+import net.minecraft.recipe.BrewingRecipeRegistry;
+import net.minecraft.recipe.RecipeManager;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.resource.featuretoggle.FeatureFlags;
+import net.minecraft.resource.featuretoggle.FeatureSet;
+import net.minecraft.scoreboard.Scoreboard;
+import net.minecraft.sound.SoundCategory;
+import net.minecraft.sound.SoundEvent;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.util.profiler.DummyProfiler;
+import net.minecraft.util.profiler.Profiler;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.ChunkManager;
+import net.minecraft.world.entity.EntityLookup;
+import net.minecraft.world.event.GameEvent;
+import net.minecraft.world.tick.EmptyTickSchedulers;
+import net.minecraft.world.tick.QueryableTickScheduler;
+import net.minecraft.world.tick.TickManager;
+import org.jetbrains.annotations.Nullable;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * An in-memory server side world with no chunks, no server and no players. Block writes are kept in a map so outcomes
+ * can read back what they placed, spawned entities are counted instead of ticked and particles and sounds are only counted.
+ * <p>
+ * A world normally needs a server, a dimension and its dynamic registries to be constructed, none of which exist here,
+ * so the world is allocated without running the {@link World} constructor and every method outcomes reach is overridden.
+ * Anything that needs a chunk or a server, such as structures, features and commands, fails on this world.
+ */
+public final class RecordingWorld extends World {
+    private static final Unsafe UNSAFE;
+    private Long2ObjectMap<BlockState> blocks;
+    private DynamicRegistryManager registryManager;
+    private long time;
+    private int blockWrites;
+    private int blockEntities;
+    private int entities;
+    private int particles;
+    private int sounds;
+
+    static {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            UNSAFE = (Unsafe) field.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private RecordingWorld() {
+        super(null, null, null, null, null, false, false, 0L, 0);
+    }
+
+    public static RecordingWorld create(long seed) {
+        RecordingWorld world;
+        try {
+            world = (RecordingWorld) UNSAFE.allocateInstance(RecordingWorld.class);
+            Field random = World.class.getDeclaredField("random");
+            random.setAccessible(true);
+            random.set(world, Random.create(seed));
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Failed to create recording world", e);
+        }
+        world.blocks = new Long2ObjectOpenHashMap<>();
+        world.registryManager = DynamicRegistryManager.of(Registries.REGISTRIES);
+        return world;
+    }
+
+    /**
+     * Forgets every block and count, and advances the time so contexts created from the world do not repeat.
+     */
+    public void reset() {
+        blocks.clear();
+        blockWrites = 0;
+        blockEntities = 0;
+        entities = 0;
+        particles = 0;
+        sounds = 0;
+        ++time;
+    }
+
+    public int getBlockWrites() {
+        return blockWrites;
+    }
+
+    public int getBlockEntities() {
+        return blockEntities;
+    }
+
+    public int getEntities() {
+        return entities;
+    }
+
+    public int getParticles() {
+        return particles;
+    }
+
+    public int getSounds() {
+        return sounds;
+    }
+
+    @Override
+    public boolean setBlockState(BlockPos pos, BlockState state, int flags, int maxUpdateDepth) {
+        ++blockWrites;
+        return blocks.put(pos.asLong(), state) != state;
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        BlockState state = blocks.get(pos.asLong());
+        return state != null ? state : Blocks.AIR.getDefaultState();
+    }
+
+    @Override
+    public FluidState getFluidState(BlockPos pos) {
+        return getBlockState(pos).getFluidState();
+    }
+
+    @Nullable
+    @Override
+    public BlockEntity getBlockEntity(BlockPos pos) {
+        return null;
+    }
+
+    @Override
+    public void addBlockEntity(BlockEntity blockEntity) {
+        ++blockEntities;
+    }
+
+    @Override
+    public boolean spawnEntity(Entity entity) {
+        ++entities;
+        return true;
+    }
+
+    @Override
+    public void addParticle(ParticleEffect parameters, double x, double y, double z, double velocityX, double velocityY, double velocityZ) {
+        ++particles;
+    }
+
+    @Override
+    public void playSound(@Nullable PlayerEntity source, double x, double y, double z, RegistryEntry<SoundEvent> sound, SoundCategory category, float volume, float pitch, long seed) {
+        ++sounds;
+    }
+
+    @Override
+    public void playSoundFromEntity(@Nullable PlayerEntity source, Entity entity, RegistryEntry<SoundEvent> sound, SoundCategory category, float volume, float pitch, long seed) {
+        ++sounds;
+    }
+
+    @Override
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public DynamicRegistryManager getRegistryManager() {
+        return registryManager;
+    }
+
+    @Override
+    public RegistryKey<World> getRegistryKey() {
+        return World.OVERWORLD;
+    }
+
+    @Override
+    public Profiler getProfiler() {
+        return DummyProfiler.INSTANCE;
+    }
+
+    @Override
+    public int getBottomY() {
+        return -64;
+    }
+
+    @Override
+    public int getHeight() {
+        return 384;
+    }
+
+    @Override
+    public int getSeaLevel() {
+        return 63;
+    }
+
+    @Override
+    public FeatureSet getEnabledFeatures() {
+        return FeatureFlags.DEFAULT_ENABLED_FEATURES;
+    }
+
+    @Override
+    public List<? extends PlayerEntity> getPlayers() {
+        return List.of();
+    }
+
+    @Override
+    public QueryableTickScheduler<Block> getBlockTickScheduler() {
+        return EmptyTickSchedulers.getClientTickScheduler();
+    }
+
+    @Override
+    public QueryableTickScheduler<Fluid> getFluidTickScheduler() {
+        return EmptyTickSchedulers.getClientTickScheduler();
+    }
+
+    @Override
+    public void updateListeners(BlockPos pos, BlockState oldState, BlockState newState, int flags) {
+    }
+
+    @Override
+    public void syncWorldEvent(@Nullable PlayerEntity player, int eventId, BlockPos pos, int data) {
+    }
+
+    @Override
+    public void emitGameEvent(RegistryEntry<GameEvent> event, Vec3d emitterPos, GameEvent.Emitter emitter) {
+    }
+
+    @Override
+    public void setBlockBreakingInfo(int entityId, BlockPos pos, int progress) {
+    }
+
+    @Override
+    public float getBrightness(Direction direction, boolean shaded) {
+        return 1f;
+    }
+
+    @Override
+    public String asString() {
+        return "RecordingWorld";
+    }
+
+    @Nullable
+    @Override
+    public Entity getEntityById(int id) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public MapState getMapState(MapIdComponent id) {
+        return null;
+    }
+
+    @Override
+    public void putMapState(MapIdComponent id, MapState state) {
+    }
+
+    @Override
+    public MapIdComponent getNextMapId() {
+        throw new UnsupportedOperationException("Maps are not supported by the recording world");
+    }
+
+    @Override
+    public TickManager getTickManager() {
+        throw new UnsupportedOperationException("Ticking is not supported by the recording world");
+    }
+
+    @Override
+    public Scoreboard getScoreboard() {
+        throw new UnsupportedOperationException("Scoreboards are not supported by the recording world");
+    }
+
+    @Override
+    public RecipeManager getRecipeManager() {
+        throw new UnsupportedOperationException("Recipes are not supported by the recording world");
+    }
+
+    @Override
+    public BrewingRecipeRegistry getBrewingRecipeRegistry() {
+        throw new UnsupportedOperationException("Brewing is not supported by the recording world");
+    }
+
+    @Override
+    protected EntityLookup<Entity> getEntityLookup() {
+        throw new UnsupportedOperationException("Entity lookups are not supported by the recording world");
+    }
+
+    @Override
+    public ChunkManager getChunkManager() {
+        throw new UnsupportedOperationException("Chunks are not supported by the recording world");
+    }
+
+    @Override
+    public RegistryEntry<Biome> getGeneratorStoredBiome(int biomeX, int biomeY, int biomeZ) {
+        throw new UnsupportedOperationException("Biomes are not supported by the recording world");
+    }
+}
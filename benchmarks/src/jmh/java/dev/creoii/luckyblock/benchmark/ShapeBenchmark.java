@@ -0,0 +1,94 @@
+package dev.creoii.luckyblock.benchmark;
+
+import dev.creoii.luckyblock.outcome.Outcome;
+import dev.creoii.luckyblock.util.shape.Cube;
+import dev.creoii.luckyblock.util.shape.Shape;
+import dev.creoii.luckyblock.util.shape.Sphere;
+import dev.creoii.luckyblock.util.shape.Triangle;
+import dev.creoii.luckyblock.util.vec.ConstantVecProvider;
+import dev.creoii.luckyblock.util.vec.RandomVecProvider;
+import dev.creoii.luckyblock.util.vec.VecProvider;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.math.floatprovider.ConstantFloatProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the block positions of a shape. A shape with a constant size is served from the mask cache after the first call,
+ * so the {@code uncached} benchmarks give the same size through a random provider, which is never cached, to measure the geometry itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShapeBenchmark {
+    @Param({"sphere", "cube", "triangle"})
+    public String shape;
+    @Param({"4", "16", "32"})
+    public int size;
+    private Outcome.Context context;
+    private Shape cached;
+    private Shape uncached;
+    private Shape largeSphere;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkBootstrap.init();
+        context = BenchmarkBootstrap.createContext(0L);
+        cached = createShape(new ConstantVecProvider(new Vec3d(size, size, size)));
+        ConstantFloatProvider fixed = ConstantFloatProvider.create(size);
+        uncached = createShape(new RandomVecProvider(fixed, fixed, fixed));
+        largeSphere = new Sphere(new ConstantVecProvider(new Vec3d(40d, 40d, 40d)), false);
+    }
+
+    private Shape createShape(VecProvider size) {
+        return switch (shape) {
+            case "sphere" -> new Sphere(size, false);
+            case "cube" -> new Cube(size, false);
+            case "triangle" -> new Triangle(size, Triangle.Type.POINT);
+            default -> throw new IllegalArgumentException("Unknown shape '" + shape + "'");
+        };
+    }
+
+    @Benchmark
+    public Object getBlockPositions() {
+        return cached.getBlockPositions(context);
+    }
+
+    @Benchmark
+    public void forEachBlock(Blackhole blackhole) {
+        cached.forEachBlock(context, blackhole::consume);
+    }
+
+    @Benchmark
+    public Object getBlockPositionsUncached() {
+        return uncached.getBlockPositions(context);
+    }
+
+    @Benchmark
+    public int count() {
+        return cached.count(context);
+    }
+
+    @Benchmark
+    public Object sample() {
+        return cached.sample(context, 5);
+    }
+
+    /**
+     * Five picks from a radius 40 sphere, which should cost about as much as five picks from a small one.
+     */
+    @Benchmark
+    public Object sampleLargeSphere() {
+        return largeSphere.sample(context, 5);
+    }
+}
@@ -0,0 +1,81 @@
+package dev.creoii.luckyblock.benchmark;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import dev.creoii.luckyblock.LuckyBlockMod;
+import dev.creoii.luckyblock.outcome.Outcome;
+import dev.creoii.luckyblock.util.FunctionUtils;
+import dev.creoii.luckyblock.util.template.StringTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders every string of the bundled {@code data/lucky} outcomes, once looking their templates up by string like
+ * {@link FunctionUtils#parseString} does and once with templates compiled ahead of time like a reload does.
+ * Strings whose parameters need a world or a player are skipped, since the context has neither.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TemplateBenchmark {
+    private final List<String> strings = new ArrayList<>();
+    private final List<StringTemplate> templates = new ArrayList<>();
+    private Outcome.Context context;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkBootstrap.init();
+        context = BenchmarkBootstrap.createContext(0L);
+        List<String> found = new ArrayList<>();
+        for (JsonObject outcome : BenchmarkBootstrap.readOutcomes(LuckyBlockMod.NAMESPACE).values()) {
+            collectStrings(outcome, found);
+        }
+
+        for (String string : found) {
+            try {
+                FunctionUtils.parseString(string, context);
+            } catch (RuntimeException e) {
+                continue;
+            }
+            strings.add(string);
+            templates.add(StringTemplate.compile(string));
+        }
+    }
+
+    private static void collectStrings(JsonElement element, List<String> strings) {
+        if (element.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                collectStrings(entry.getValue(), strings);
+            }
+        } else if (element.isJsonArray()) {
+            element.getAsJsonArray().forEach(child -> collectStrings(child, strings));
+        } else if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isString())
+            strings.add(element.getAsString());
+    }
+
+    @Benchmark
+    public void parseString(Blackhole blackhole) {
+        for (String string : strings) {
+            blackhole.consume(FunctionUtils.parseString(string, context));
+        }
+    }
+
+    @Benchmark
+    public void renderCompiled(Blackhole blackhole) {
+        for (StringTemplate template : templates) {
+            blackhole.consume(template.render(context));
+        }
+    }
+}
@@ -1,16 +1,19 @@
 package dev.creoii.luckyblock;
 
 import com.google.common.collect.Maps;
-import com.google.gson.JsonObject;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import dev.creoii.luckyblock.block.LuckyBlock;
+import dev.creoii.luckyblock.outcome.CompiledOutcome;
+import dev.creoii.luckyblock.outcome.OutcomeTable;
 import net.minecraft.item.BlockItem;
 import net.minecraft.item.Item;
 import net.minecraft.registry.Registries;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.Rarity;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -26,8 +29,7 @@ public class LuckyBlockContainer {
     private final boolean rightClickOpen;
     private final Settings settings;
     private final Map<Item, Integer> itemLuck;
-    private final Map<Identifier, JsonObject> randomOutcomes;
-    private final Map<Identifier, JsonObject> nonrandomOutcomes;
+    private volatile Outcomes outcomes = Outcomes.EMPTY;
     private LuckyBlock block;
     private BlockItem blockItem;
 
@@ -36,8 +38,6 @@ public class LuckyBlockContainer {
         this.rightClickOpen = rightClickOpen;
         this.settings = settings;
         this.itemLuck = itemLuck;
-        randomOutcomes = new HashMap<>();
-        nonrandomOutcomes = new HashMap<>();
     }
 
     public Identifier getId() {
@@ -56,20 +56,27 @@ public class LuckyBlockContainer {
         return itemLuck;
     }
 
-    public Map<Identifier, JsonObject> getRandomOutcomes() {
-        return randomOutcomes;
+    public Outcomes getOutcomes() {
+        return outcomes;
     }
 
-    public void addRandomOutcome(Identifier id, JsonObject outcome) {
-        randomOutcomes.put(id, outcome);
+    /**
+     * Replaces every outcome of the container at once, so a break never sees a partially reloaded container.
+     */
+    public void setOutcomes(Outcomes outcomes) {
+        this.outcomes = outcomes;
     }
 
-    public Map<Identifier, JsonObject> getNonrandomOutcomes() {
-        return nonrandomOutcomes;
+    public Map<Identifier, CompiledOutcome> getRandomOutcomes() {
+        return outcomes.random();
     }
 
-    public void addNonRandomOutcome(Identifier id, JsonObject outcome) {
-        nonrandomOutcomes.put(id, outcome);
+    public OutcomeTable getRandomOutcomeTable() {
+        return outcomes.randomTable();
+    }
+
+    public Map<Identifier, CompiledOutcome> getNonrandomOutcomes() {
+        return outcomes.nonrandom();
     }
 
     public void addItemLuckValue(Item item, int luck) {
@@ -96,6 +103,24 @@ public class LuckyBlockContainer {
         return blockItem;
     }
 
+    /**
+     * An immutable snapshot of the outcomes of a container, built off-thread during a reload.
+     */
+    public record Outcomes(Map<Identifier, CompiledOutcome> random, Map<Identifier, CompiledOutcome> nonrandom, Map<Identifier, CompiledOutcome> byId, OutcomeTable randomTable) {
+        public static final Outcomes EMPTY = create(Map.of(), Map.of());
+
+        public static Outcomes create(Map<Identifier, CompiledOutcome> random, Map<Identifier, CompiledOutcome> nonrandom) {
+            Map<Identifier, CompiledOutcome> byId = new HashMap<>(random);
+            byId.putAll(nonrandom);
+            return new Outcomes(Collections.unmodifiableMap(random), Collections.unmodifiableMap(nonrandom), Collections.unmodifiableMap(byId), OutcomeTable.create(random));
+        }
+
+        @Nullable
+        public CompiledOutcome get(Identifier id) {
+            return byId.get(id);
+        }
+    }
+
     public record Settings(float hardness, float resistance, Rarity rarity) {
         public static final Settings DEFAULT = new Settings(.2f, 20f, Rarity.RARE);
         public static final Codec<Settings> CODEC = RecordCodecBuilder.create(instance -> {
@@ -1,25 +1,171 @@
 package dev.creoii.luckyblock;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.JsonOps;
 import net.minecraft.block.Block;
 import net.minecraft.item.Item;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 public abstract class LuckyBlockManager {
-    public static final Pattern PATH_PATTERN = Pattern.compile("^/?data/[^/]+/lucky_block\\.json$");
+    public static final String CONTAINER_FILE = "lucky_block.json";
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     private final Map<String, LuckyBlockContainer> luckyBlocks;
 
     public LuckyBlockManager() {
         luckyBlocks = init();
     }
 
-    public abstract Map<String, LuckyBlockContainer> init();
+    /**
+     * Finds the {@code data/<namespace>/lucky_block.json} file of every mod and parses its container.
+     * Mods are probed in parallel, but containers are parsed and loaded in mod order.
+     */
+    public Map<String, LuckyBlockContainer> init() {
+        List<DataSource> sources = getDataSources().stream().filter(source -> !getIgnoredMods().contains(source.modId())).toList();
+        Index index = readIndex();
+        List<List<Path>> found = sources.parallelStream().map(source -> findContainerFiles(source, index)).toList();
+        writeIndex(index);
+
+        ImmutableMap.Builder<String, LuckyBlockContainer> builder = ImmutableMap.builder();
+        for (List<Path> paths : found) {
+            for (Path path : paths) {
+                JsonElement element;
+                try {
+                    element = JsonParser.parseString(Files.readString(path));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                if (element.isJsonObject()) {
+                    DataResult<LuckyBlockContainer> dataResult = LuckyBlockContainer.CODEC.parse(JsonOps.INSTANCE, element);
+                    dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing lucky block container: {}", string)).ifPresent(container -> {
+                        LuckyBlockMod.LOGGER.info("Loading lucky block container '{}'", container.getId().getNamespace());
+                        onContainerLoaded(container);
+                        builder.put(container.getId().getNamespace(), container);
+                    });
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Probes {@code data/*}{@code /lucky_block.json} one directory level deep, without walking the rest of the data tree.
+     * When the index knows the mod file, only the namespaces it recorded are checked.
+     */
+    private static List<Path> findContainerFiles(DataSource source, @Nullable Index index) {
+        String fingerprint = index != null ? fingerprint(source.origin()) : null;
+        if (fingerprint != null) {
+            Index.Entry entry = index.get(source.modId());
+            if (entry != null && fingerprint.equals(entry.fingerprint())) {
+                return entry.namespaces().stream().map(namespace -> source.dataRoot().resolve(namespace).resolve(CONTAINER_FILE)).filter(Files::isRegularFile).toList();
+            }
+        }
+
+        List<Path> paths = new ArrayList<>();
+        if (Files.isDirectory(source.dataRoot())) {
+            try (Stream<Path> namespaces = Files.list(source.dataRoot())) {
+                namespaces.forEach(namespace -> {
+                    Path path = namespace.resolve(CONTAINER_FILE);
+                    if (Files.isRegularFile(path))
+                        paths.add(path);
+                });
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to probe lucky block containers of '" + source.modId() + "'", e);
+            }
+        }
+
+        if (fingerprint != null) {
+            index.put(source.modId(), new Index.Entry(fingerprint, paths.stream().map(path -> path.getParent().getFileName().toString().replace("/", "")).toList()));
+        }
+        return paths;
+    }
+
+    /**
+     * @return the size and modification time of the mod file, or null if the mod is not a single file, such as in a development environment
+     */
+    @Nullable
+    private static String fingerprint(@Nullable Path origin) {
+        if (origin == null || !Files.isRegularFile(origin))
+            return null;
+
+        try {
+            return Files.size(origin) + ":" + Files.getLastModifiedTime(origin).toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private Index readIndex() {
+        Path path = getIndexPath();
+        if (path == null)
+            return null;
+
+        if (Files.isRegularFile(path)) {
+            try (Reader reader = Files.newBufferedReader(path)) {
+                Index index = GSON.fromJson(reader, Index.class);
+                if (index != null)
+                    return index;
+            } catch (IOException | JsonParseException e) {
+                LuckyBlockMod.LOGGER.warn("Failed to read lucky block container index, rescanning every mod", e);
+            }
+        }
+        return new Index();
+    }
+
+    private void writeIndex(@Nullable Index index) {
+        Path path = getIndexPath();
+        if (index == null || path == null || !index.dirty)
+            return;
+
+        try {
+            Files.createDirectories(path.getParent());
+            try (Writer writer = Files.newBufferedWriter(path)) {
+                GSON.toJson(index, writer);
+            }
+        } catch (IOException e) {
+            LuckyBlockMod.LOGGER.warn("Failed to write lucky block container index", e);
+        }
+    }
+
+    /**
+     * @return the data directory of every loaded mod
+     */
+    public abstract List<DataSource> getDataSources();
 
     public abstract List<String> getIgnoredMods();
 
+    /**
+     * @return where the container index is kept between launches, or null to probe every mod on every launch
+     */
+    @Nullable
+    public Path getIndexPath() {
+        return null;
+    }
+
+    /**
+     * Called for every container as it is parsed, in mod order.
+     */
+    protected void onContainerLoaded(LuckyBlockContainer container) {
+    }
+
     @Nullable
     public LuckyBlockContainer getContainer(String namespace) {
         return luckyBlocks.getOrDefault(namespace, null);
@@ -36,4 +182,30 @@ public abstract class LuckyBlockManager {
     public Item[] getAllItems() {
         return luckyBlocks.values().stream().map(LuckyBlockContainer::getBlockItem).distinct().toArray(Item[]::new);
     }
+
+    /**
+     * @param dataRoot the {@code data} directory of the mod
+     * @param origin the file the mod was loaded from, used to tell whether the index is still valid
+     */
+    public record DataSource(String modId, Path dataRoot, @Nullable Path origin) {}
+
+    /**
+     * The namespaces that contain a container file, by mod id, along with the fingerprint of the mod file they were found in.
+     */
+    private static final class Index {
+        private final Map<String, Entry> mods = new HashMap<>();
+        private transient boolean dirty;
+
+        @Nullable
+        synchronized Entry get(String modId) {
+            return mods.get(modId);
+        }
+
+        synchronized void put(String modId, Entry entry) {
+            if (!Objects.equals(mods.put(modId, entry), entry))
+                dirty = true;
+        }
+
+        private record Entry(String fingerprint, List<String> namespaces) {}
+    }
 }
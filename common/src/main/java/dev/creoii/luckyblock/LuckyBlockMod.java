@@ -3,9 +3,14 @@ package dev.creoii.luckyblock;
 import com.mojang.logging.LogUtils;
 import com.mojang.serialization.Lifecycle;
 import dev.creoii.luckyblock.block.LuckyBlockEntity;
+import dev.creoii.luckyblock.outcome.DensityGuard;
+import dev.creoii.luckyblock.outcome.EffectCoalescer;
 import dev.creoii.luckyblock.outcome.OutcomeManager;
+import dev.creoii.luckyblock.outcome.OutcomeMetrics;
 import dev.creoii.luckyblock.outcome.OutcomeType;
+import dev.creoii.luckyblock.outcome.SpawnScheduler;
 import dev.creoii.luckyblock.recipe.LuckyRecipe;
+import dev.creoii.luckyblock.util.PlayerIndex;
 import dev.creoii.luckyblock.util.vec.VecProviderType;
 import dev.creoii.luckyblock.util.shape.ShapeType;
 import net.minecraft.block.entity.BlockEntityType;
@@ -26,6 +31,11 @@ public final class LuckyBlockMod {
 
     public static LuckyBlockManager luckyBlockManager;
     public static final OutcomeManager OUTCOME_MANAGER = new OutcomeManager();
+    public static final OutcomeMetrics OUTCOME_METRICS = new OutcomeMetrics();
+    public static final EffectCoalescer EFFECT_COALESCER = new EffectCoalescer();
+    public static final PlayerIndex PLAYER_INDEX = new PlayerIndex();
+    public static final SpawnScheduler SPAWN_SCHEDULER = new SpawnScheduler();
+    public static final DensityGuard DENSITY_GUARD = new DensityGuard();
 
     public static final RecipeSerializer<LuckyRecipe> LUCKY_RECIPE_SERIALIZER = new SpecialRecipeSerializer<>(LuckyRecipe::new);
 
@@ -1,9 +1,9 @@
 package dev.creoii.luckyblock.block;
 
-import com.google.gson.JsonObject;
 import com.mojang.serialization.MapCodec;
 import dev.creoii.luckyblock.LuckyBlockContainer;
 import dev.creoii.luckyblock.LuckyBlockMod;
+import dev.creoii.luckyblock.outcome.CompiledOutcome;
 import dev.creoii.luckyblock.outcome.Outcome;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockRenderType;
@@ -81,25 +81,26 @@ public class LuckyBlock extends BlockWithEntity {
         return super.getPlacementState(ctx);
     }
 
-    private JsonObject getOutcomeFromState(World world, BlockState state, BlockPos pos, @Nullable PlayerEntity player) {
-        BlockEntity blockEntity = world.getBlockEntity(pos);
+    private CompiledOutcome getOutcomeFromState(Outcome.Context context) {
+        BlockEntity blockEntity = context.world().getBlockEntity(context.pos());
         if (blockEntity instanceof LuckyBlockEntity luckyBlockEntity && luckyBlockEntity.getOutcomeId() != null) {
-            JsonObject outcome = LuckyBlockMod.OUTCOME_MANAGER.getOutcomeById(luckyBlockEntity.getOutcomeId());
+            CompiledOutcome outcome = LuckyBlockMod.OUTCOME_MANAGER.getOutcomeById(luckyBlockEntity.getOutcomeId());
             if (outcome != null) {
                 return outcome;
             }
         }
 
-        return LuckyBlockMod.OUTCOME_MANAGER.getRandomOutcome(namespace, world.getRandom(), state.get(LUCK) - 100, player).getRight();
+        return LuckyBlockMod.OUTCOME_MANAGER.getRandomOutcome(namespace, context.random(), context.state().get(LUCK) - 100, context.player()).getRight();
     }
 
     @Override
     public BlockState onBreak(World world, BlockPos pos, BlockState state, PlayerEntity player) {
         if (!world.isClient) {
             Outcome.Context context = new Outcome.Context(world, pos, state, player);
-            Outcome outcome = LuckyBlockMod.OUTCOME_MANAGER.parseJsonOutcome(getOutcomeFromState(world, state, pos, player), context);
+            CompiledOutcome compiled = getOutcomeFromState(context);
+            Outcome outcome = compiled.get(context);
             if (outcome != null) {
-                outcome.runOutcome(context);
+                outcome.runOutcome(context, compiled.getId());
             }
         }
         return super.onBreak(world, pos, state, player);
@@ -111,10 +112,11 @@ public class LuckyBlock extends BlockWithEntity {
         if (container != null && container.doesRightClickOpen()) {
             if (!world.isClient) {
                 Outcome.Context context = new Outcome.Context(world, pos, state, player);
-                Outcome outcome = LuckyBlockMod.OUTCOME_MANAGER.parseJsonOutcome(getOutcomeFromState(world, state, pos, player), context);
+                CompiledOutcome compiled = getOutcomeFromState(context);
+                Outcome outcome = compiled.get(context);
                 if (outcome != null) {
                     world.breakBlock(pos, false);
-                    outcome.runOutcome(context);
+                    outcome.runOutcome(context, compiled.getId());
                 }
             }
             return ActionResult.success(world.isClient);
@@ -126,10 +128,11 @@ public class LuckyBlock extends BlockWithEntity {
     protected void neighborUpdate(BlockState state, World world, BlockPos pos, Block sourceBlock, BlockPos sourcePos, boolean notify) {
         if (!world.isClient && world.isReceivingRedstonePower(pos)) {
             Outcome.Context context = new Outcome.Context(world, pos, state, null);
-            Outcome outcome = LuckyBlockMod.OUTCOME_MANAGER.parseJsonOutcome(getOutcomeFromState(world, state, pos, null), context);
+            CompiledOutcome compiled = getOutcomeFromState(context);
+            Outcome outcome = compiled.get(context);
             if (outcome != null) {
                 world.breakBlock(pos, false);
-                outcome.runOutcome(context);
+                outcome.runOutcome(context, compiled.getId());
             }
         }
     }
@@ -0,0 +1,154 @@
+package dev.creoii.luckyblock.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import dev.creoii.luckyblock.LuckyBlockMod;
+import dev.creoii.luckyblock.outcome.DensityGuard;
+import dev.creoii.luckyblock.outcome.EffectCoalescer;
+import dev.creoii.luckyblock.outcome.OutcomeMetrics;
+import dev.creoii.luckyblock.outcome.OutcomeWatchdog;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code /lucky stats [types|outcomes|reset|dump]} shows where outcomes spend their time,
+ * {@code /lucky watchdog [clear|threshold [<millis>]]} shows the outcomes that were too slow.
+ */
+public final class LuckyCommand {
+    private static final int MAX_LINES = 10;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private LuckyCommand() {
+    }
+
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        dispatcher.register(CommandManager.literal(LuckyBlockMod.NAMESPACE).requires(source -> source.hasPermissionLevel(2))
+                .then(CommandManager.literal("stats")
+                        .executes(context -> showTypes(context.getSource()))
+                        .then(CommandManager.literal("types").executes(context -> showTypes(context.getSource())))
+                        .then(CommandManager.literal("outcomes").executes(context -> showOutcomes(context.getSource())))
+                        .then(CommandManager.literal("reset").executes(context -> reset(context.getSource())))
+                        .then(CommandManager.literal("dump").executes(context -> dump(context.getSource())))
+                )
+                .then(CommandManager.literal("watchdog")
+                        .executes(context -> showSamples(context.getSource()))
+                        .then(CommandManager.literal("clear").executes(context -> clearSamples(context.getSource())))
+                        .then(CommandManager.literal("threshold")
+                                .executes(context -> showThreshold(context.getSource()))
+                                .then(CommandManager.argument("millis", IntegerArgumentType.integer(0)).executes(context -> setThreshold(context.getSource(), IntegerArgumentType.getInteger(context, "millis"))))
+                        )
+                )
+        );
+    }
+
+    private static int showTypes(ServerCommandSource source) {
+        OutcomeMetrics.Stats delays = LuckyBlockMod.OUTCOME_METRICS.getDelays();
+        source.sendFeedback(() -> Text.literal(String.format(Locale.ROOT, "Delayed outcomes: %d queued, %d deferred last tick, %d ran in %d batches, batch p99 %s, %d spread spawns queued",
+                LuckyBlockMod.OUTCOME_MANAGER.getQueueDepth(), LuckyBlockMod.OUTCOME_MANAGER.getLastDeferred(), delays.getRuns(), delays.getExecution().getCount(), formatMillis(delays.getExecution().getPercentile(99d)),
+                LuckyBlockMod.SPAWN_SCHEDULER.getQueueDepth())), false);
+        EffectCoalescer effects = LuckyBlockMod.EFFECT_COALESCER;
+        source.sendFeedback(() -> Text.literal(String.format(Locale.ROOT, "Effects: %d particles in %d packets, %d packets over budget, %d duplicate sounds",
+                effects.getEmitted(), effects.getSent(), effects.getCulled(), effects.getDeduplicated())), false);
+        for (Map.Entry<String, Map<DensityGuard.Decision, LongAdder>> entry : LuckyBlockMod.OUTCOME_METRICS.getDensity().entrySet()) {
+            Map<DensityGuard.Decision, LongAdder> decisions = entry.getValue();
+            source.sendFeedback(() -> Text.literal(String.format(Locale.ROOT, "Density guard, %s: %d allowed, %d merged, %d clamped", entry.getKey(),
+                    getCount(decisions, DensityGuard.Decision.ALLOWED), getCount(decisions, DensityGuard.Decision.MERGED), getCount(decisions, DensityGuard.Decision.CLAMPED))), false);
+        }
+        return show(source, "Outcome types", OutcomeMetrics.sortByTotal(LuckyBlockMod.OUTCOME_METRICS.getTypes()).stream().map(entry -> Map.entry(OutcomeMetrics.getName(entry.getKey()), entry.getValue())).toList());
+    }
+
+    private static int showOutcomes(ServerCommandSource source) {
+        return show(source, "Outcomes", OutcomeMetrics.sortByTotal(LuckyBlockMod.OUTCOME_METRICS.getOutcomes()).stream().map(entry -> Map.entry(entry.getKey().toString(), entry.getValue())).toList());
+    }
+
+    private static int show(ServerCommandSource source, String title, List<Map.Entry<String, OutcomeMetrics.Stats>> entries) {
+        if (entries.isEmpty()) {
+            source.sendFeedback(() -> Text.literal(title + ": nothing has run yet"), false);
+            return 0;
+        }
+
+        source.sendFeedback(() -> Text.literal(title + " by total time:").formatted(Formatting.GOLD), false);
+        for (Map.Entry<String, OutcomeMetrics.Stats> entry : entries.subList(0, Math.min(entries.size(), MAX_LINES))) {
+            OutcomeMetrics.Stats stats = entry.getValue();
+            String line = String.format(Locale.ROOT, " %s: %d runs, total %s, p50 %s, p99 %s, max %s", entry.getKey(), stats.getRuns(), formatMillis(stats.getExecution().getTotal()),
+                    formatMillis(stats.getExecution().getPercentile(50d)), formatMillis(stats.getExecution().getPercentile(99d)), formatMillis(stats.getExecution().getMax()));
+            if (stats.getParse().getCount() > 0L)
+                line += String.format(Locale.ROOT, ", parse p99 %s", formatMillis(stats.getParse().getPercentile(99d)));
+            line += String.format(Locale.ROOT, ", %d blocks, %d entities, %d packets", stats.getBlocks(), stats.getEntities(), stats.getPackets());
+
+            Text text = Text.literal(line);
+            source.sendFeedback(() -> text, false);
+        }
+        return entries.size();
+    }
+
+    private static int reset(ServerCommandSource source) {
+        LuckyBlockMod.OUTCOME_METRICS.reset();
+        LuckyBlockMod.EFFECT_COALESCER.reset();
+        source.sendFeedback(() -> Text.literal("Reset outcome statistics"), true);
+        return 1;
+    }
+
+    private static int dump(ServerCommandSource source) {
+        LuckyBlockMod.OUTCOME_METRICS.dump().whenComplete((path, throwable) -> source.getServer().execute(() -> {
+            if (throwable != null) {
+                LuckyBlockMod.LOGGER.warn("Failed to dump outcome statistics", throwable);
+                source.sendError(Text.literal("Failed to dump outcome statistics, see the log for details"));
+            } else source.sendFeedback(() -> Text.literal("Dumped outcome statistics to " + path), false);
+        }));
+        return 1;
+    }
+
+    private static int showSamples(ServerCommandSource source) {
+        OutcomeWatchdog watchdog = LuckyBlockMod.OUTCOME_METRICS.getWatchdog();
+        List<OutcomeWatchdog.Sample> samples = watchdog.getSamples();
+        if (samples.isEmpty()) {
+            source.sendFeedback(() -> Text.literal("No outcome has taken longer than " + watchdog.getThreshold() + "ms"), false);
+            return 0;
+        }
+
+        source.sendFeedback(() -> Text.literal(String.format(Locale.ROOT, "%d outcomes took longer than %dms, the last %d:", watchdog.getTotal(), watchdog.getThreshold(), samples.size())).formatted(Formatting.GOLD), false);
+        for (OutcomeWatchdog.Sample sample : samples) {
+            Text text = Text.literal(" " + TIME_FORMAT.format(Instant.ofEpochMilli(sample.time())) + " " + sample.describe());
+            source.sendFeedback(() -> text, false);
+        }
+        return samples.size();
+    }
+
+    private static int clearSamples(ServerCommandSource source) {
+        LuckyBlockMod.OUTCOME_METRICS.getWatchdog().clear();
+        source.sendFeedback(() -> Text.literal("Cleared slow outcome samples"), true);
+        return 1;
+    }
+
+    private static int showThreshold(ServerCommandSource source) {
+        int threshold = LuckyBlockMod.OUTCOME_METRICS.getWatchdog().getThreshold();
+        source.sendFeedback(() -> Text.literal("Outcomes are sampled once they take " + threshold + "ms"), false);
+        return threshold;
+    }
+
+    private static int setThreshold(ServerCommandSource source, int millis) {
+        LuckyBlockMod.OUTCOME_METRICS.getWatchdog().setThreshold(millis);
+        source.sendFeedback(() -> Text.literal("Outcomes are now sampled once they take " + millis + "ms"), true);
+        return millis;
+    }
+
+    private static long getCount(Map<DensityGuard.Decision, LongAdder> decisions, DensityGuard.Decision decision) {
+        LongAdder count = decisions.get(decision);
+        return count != null ? count.sum() : 0L;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.2fms", nanos / 1e6d);
+    }
+}
@@ -1,10 +1,14 @@
 package dev.creoii.luckyblock.outcome;
 
+import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.creoii.luckyblock.LuckyBlockMod;
+import dev.creoii.luckyblock.util.BlockBatch;
 import dev.creoii.luckyblock.util.nbt.ContextualNbtCompound;
 import dev.creoii.luckyblock.util.vec.VecProvider;
 import dev.creoii.luckyblock.util.shape.Shape;
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.util.math.BlockPos;
@@ -22,39 +26,60 @@ public class BlockOutcome extends Outcome {
                 createGlobalReinitField(Outcome::shouldReinit),
                 BlockStateProvider.TYPE_CODEC.fieldOf("state_provider").forGetter(outcome -> outcome.stateProvider),
                 ContextualNbtCompound.CODEC.optionalFieldOf("block_entity").forGetter(outcome -> outcome.blockEntity),
-                Shape.CODEC.optionalFieldOf("shape").forGetter(outcome -> outcome.shape)
+                Shape.CODEC.optionalFieldOf("shape").forGetter(outcome -> outcome.shape),
+                Codec.INT.optionalFieldOf("flags").forGetter(outcome -> outcome.flags),
+                Codec.BOOL.fieldOf("update_neighbors").orElse(true).forGetter(outcome -> outcome.updateNeighbors)
         ).apply(instance, BlockOutcome::new);
     });
     private final BlockStateProvider stateProvider;
     private final Optional<ContextualNbtCompound> blockEntity;
     private final Optional<Shape> shape;
+    private final Optional<Integer> flags;
+    private final boolean updateNeighbors;
 
-    public BlockOutcome(int luck, float chance, Optional<Integer> delay, Optional<VecProvider> pos, boolean reinit, BlockStateProvider stateProvider, Optional<ContextualNbtCompound> blockEntity, Optional<Shape> shape) {
+    /**
+     * Shapes are placed through a {@link BlockBatch} unless {@code flags} is set. Blocks still get shape updates, but only the blocks
+     * on the edge of the shape notify their neighbors, once the whole shape is placed, where every block used to notify its neighbors as it was placed.
+     * @param flags the {@link Block} flags to place every block with, which disables batched placement of shapes
+     * @param updateNeighbors whether the blocks around a shape get a neighbor update once it is placed
+     */
+    public BlockOutcome(int luck, float chance, Optional<Integer> delay, Optional<VecProvider> pos, boolean reinit, BlockStateProvider stateProvider, Optional<ContextualNbtCompound> blockEntity, Optional<Shape> shape, Optional<Integer> flags, boolean updateNeighbors) {
         super(OutcomeType.BLOCK, luck, chance, delay, pos, reinit);
         this.stateProvider = stateProvider;
         this.blockEntity = blockEntity;
         this.shape = shape;
+        this.flags = flags;
+        this.updateNeighbors = updateNeighbors;
     }
 
     @Override
     public void run(Context context) {
         MutableObject<BlockPos> place = new MutableObject<>(getPos(context).getPos(context));
         if (shape.isPresent()) {
-            shape.get().getBlockPositions(context).forEach(pos -> {
-                BlockState state = stateProvider.get(context.world().getRandom(), place.getValue().add(pos));
-                if (context.world().setBlockState(place.getValue().add(pos), state)) {
+            BlockBatch batch = flags.isEmpty() ? new BlockBatch(context.world(), updateNeighbors) : null;
+            shape.get().forEachBlock(context, pos -> {
+                BlockPos blockPos = place.getValue().add(pos);
+                BlockState state = stateProvider.get(context.random(), blockPos);
+                if (batch != null ? batch.setBlockState(blockPos, state) : context.world().setBlockState(blockPos, state, flags.get())) {
+                    if (batch == null)
+                        LuckyBlockMod.OUTCOME_METRICS.addBlocks(1);
                     blockEntity.ifPresent(nbtCompound -> {
                         nbtCompound.setContext(context);
-                        context.world().addBlockEntity(BlockEntity.createFromNbt(place.getValue().add(pos), state, nbtCompound, context.world().getRegistryManager()));
+                        context.world().addBlockEntity(BlockEntity.createFromNbt(blockPos, state, nbtCompound, context.world().getRegistryManager()));
+                        if (batch != null)
+                            context.world().updateListeners(blockPos, state, state, Block.NOTIFY_LISTENERS);
                     });
                     if (shouldReinit()) {
                         place.setValue(getPos(context).getPos(context));
                     }
                 }
             });
+            if (batch != null)
+                batch.flush();
         } else {
-            BlockState state = stateProvider.get(context.world().getRandom(), place.getValue());
-            if (context.world().setBlockState(place.getValue(), state)) {
+            BlockState state = stateProvider.get(context.random(), place.getValue());
+            if (context.world().setBlockState(place.getValue(), state, flags.orElse(Block.NOTIFY_ALL))) {
+                LuckyBlockMod.OUTCOME_METRICS.addBlocks(1);
                 blockEntity.ifPresent(nbtCompound -> {
                     nbtCompound.setContext(context);
                     context.world().addBlockEntity(BlockEntity.createFromNbt(place.getValue(), state, nbtCompound, context.world().getRegistryManager()));
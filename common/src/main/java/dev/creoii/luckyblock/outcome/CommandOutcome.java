@@ -3,10 +3,11 @@ package dev.creoii.luckyblock.outcome;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
-import dev.creoii.luckyblock.util.FunctionUtils;
+import dev.creoii.luckyblock.util.template.StringTemplate;
 import dev.creoii.luckyblock.util.vec.VecProvider;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.command.ServerCommandSource;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Optional;
 
@@ -20,6 +21,7 @@ public class CommandOutcome extends Outcome {
         ).apply(instance, CommandOutcome::new);
     });
     private final String command;
+    @Nullable private StringTemplate template;
 
     public CommandOutcome(int luck, float chance, Optional<Integer> delay, Optional<VecProvider> pos, String command) {
         super(OutcomeType.COMMAND, luck, chance, delay, pos, false);
@@ -34,7 +36,9 @@ public class CommandOutcome extends Outcome {
             if (getPos().isPresent()) {
                 source = source.withPosition(getPos().get().getVec(context));
             }
-            server.getCommandManager().executeWithPrefix(source, FunctionUtils.parseString(command, context));
+            if (template == null)
+                template = StringTemplate.compile(command);
+            server.getCommandManager().executeWithPrefix(source, template.render(context));
         }
     }
 }
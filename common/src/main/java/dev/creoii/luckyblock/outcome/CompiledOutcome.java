@@ -0,0 +1,69 @@
+package dev.creoii.luckyblock.outcome;
+
+import com.google.gson.JsonObject;
+import dev.creoii.luckyblock.LuckyBlockMod;
+import dev.creoii.luckyblock.util.template.JsonTemplate;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An outcome file prepared at reload time. Outcomes without any context parameters are decoded once and shared,
+ * outcomes with parameters keep their compiled {@link JsonTemplate} and are only bound to a {@link Outcome.Context} when run.
+ */
+public final class CompiledOutcome {
+    private final Identifier id;
+    private final JsonObject json;
+    @Nullable private final JsonTemplate template;
+    @Nullable private final Outcome outcome;
+
+    private CompiledOutcome(Identifier id, JsonObject json, @Nullable JsonTemplate template, @Nullable Outcome outcome) {
+        this.id = id;
+        this.json = json;
+        this.template = template;
+        this.outcome = outcome;
+    }
+
+    public static CompiledOutcome compile(Identifier id, JsonObject json) {
+        JsonTemplate template;
+        try {
+            template = JsonTemplate.compile(json);
+        } catch (IllegalArgumentException e) {
+            LuckyBlockMod.LOGGER.error("Error compiling outcome '{}': {}", id, e.getMessage());
+            return new CompiledOutcome(id, json, null, null);
+        }
+
+        if (!template.isConstant()) {
+            return new CompiledOutcome(id, json, template, null);
+        }
+
+        Outcome outcome = LuckyBlockMod.OUTCOME_MANAGER.decodeOutcome(template.render(null));
+        if (outcome == null) {
+            LuckyBlockMod.LOGGER.error("Outcome '{}' could not be decoded", id);
+        }
+        return new CompiledOutcome(id, json, null, outcome);
+    }
+
+    public Identifier getId() {
+        return id;
+    }
+
+    public JsonObject getJson() {
+        return json;
+    }
+
+    public boolean isTemplated() {
+        return template != null;
+    }
+
+    @Nullable
+    public Outcome get(Outcome.Context context) {
+        if (template == null) {
+            return outcome;
+        }
+
+        long start = System.nanoTime();
+        Outcome outcome = LuckyBlockMod.OUTCOME_MANAGER.decodeOutcome(template.render(context));
+        LuckyBlockMod.OUTCOME_METRICS.recordParse(id, System.nanoTime() - start);
+        return outcome;
+    }
+}
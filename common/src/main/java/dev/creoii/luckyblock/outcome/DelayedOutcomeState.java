@@ -0,0 +1,69 @@
+package dev.creoii.luckyblock.outcome;
+
+import dev.creoii.luckyblock.LuckyBlockMod;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.PersistentState;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Saves the delayed outcomes of a world, so they survive a restart.
+ * Saved entries are grouped by chunk and are only decoded once their chunk is loaded again.
+ * Each entry keeps the seed of its context, so a restored outcome gets a random seeded the same as the one it was queued with.
+ */
+public class DelayedOutcomeState extends PersistentState {
+    public static final String ID = LuckyBlockMod.NAMESPACE + "_delayed_outcomes";
+    public static final String DELAYS_KEY = "delays";
+    private final ServerWorld world;
+    private final Long2ObjectMap<NbtList> pending = new Long2ObjectOpenHashMap<>();
+
+    private DelayedOutcomeState(ServerWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * The state is created without {@link net.minecraft.datafixer.DataFixTypes}: the saved entries are encoded outcomes
+     * and block states, which no vanilla fixer knows how to update. Entries that fail to decode after an update are logged and dropped.
+     */
+    public static DelayedOutcomeState get(ServerWorld world) {
+        return world.getPersistentStateManager().getOrCreate(new PersistentState.Type<>(() -> new DelayedOutcomeState(world), (nbt, registryLookup) -> fromNbt(world, nbt), null), ID);
+    }
+
+    private static DelayedOutcomeState fromNbt(ServerWorld world, NbtCompound nbt) {
+        DelayedOutcomeState state = new DelayedOutcomeState(world);
+        NbtList delays = nbt.getList(DELAYS_KEY, NbtElement.COMPOUND_TYPE);
+        for (int i = 0; i < delays.size(); ++i) {
+            NbtCompound entry = delays.getCompound(i);
+            long chunkPos = new ChunkPos(BlockPos.fromLong(entry.getLong("pos"))).toLong();
+            state.pending.computeIfAbsent(chunkPos, l -> new NbtList()).add(entry);
+        }
+        return state;
+    }
+
+    /**
+     * @return the saved entries of the chunk that have not been restored yet, or null if there are none
+     */
+    @Nullable
+    public NbtList takePending(ChunkPos chunkPos) {
+        NbtList list = pending.remove(chunkPos.toLong());
+        if (list != null)
+            markDirty();
+        return list;
+    }
+
+    @Override
+    public NbtCompound writeNbt(NbtCompound nbt, RegistryWrapper.WrapperLookup registryLookup) {
+        NbtList delays = new NbtList();
+        pending.values().forEach(delays::addAll);
+        LuckyBlockMod.OUTCOME_MANAGER.writeDelays(world, delays);
+        nbt.put(DELAYS_KEY, delays);
+        return nbt;
+    }
+}
@@ -0,0 +1,128 @@
+package dev.creoii.luckyblock.outcome;
+
+import dev.creoii.luckyblock.LuckyBlockMod;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.ItemEntity;
+import net.minecraft.entity.SpawnGroup;
+import net.minecraft.item.ItemStack;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.TypeFilter;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps spawn heavy outcomes from piling entities into a single chunk section.
+ * Before an outcome spawns an entity, the entities of its budget already in its chunk section are counted, once per section
+ * and tick, and the spawn is refused once the section holds {@code lucky.densityCap.<budget>} of them. A cap of zero disables the guard for that budget.
+ * <p>
+ * Every spawn group is a budget, except that items have their own {@value #ITEMS} budget instead of sharing {@code misc}
+ * with armor stands, experience orbs and the like. A refused item is merged into the items already lying in the section where they have room for it.
+ * Every decision is counted in {@link OutcomeMetrics}.
+ */
+public final class DensityGuard {
+    public static final String ITEMS = "items";
+    private final Object2IntMap<String> caps = new Object2IntOpenHashMap<>();
+    private final Map<ServerWorld, Map<String, Long2IntMap>> counts = new Reference2ObjectOpenHashMap<>();
+    private int countedTick = -1;
+
+    public DensityGuard() {
+        for (SpawnGroup group : SpawnGroup.values()) {
+            caps.put(group.getName(), Integer.getInteger("lucky.densityCap." + group.getName(), getDefaultCap(group)));
+        }
+        caps.put(ITEMS, Integer.getInteger("lucky.densityCap." + ITEMS, 256));
+    }
+
+    private static int getDefaultCap(SpawnGroup group) {
+        return switch (group) {
+            case MONSTER -> 64;
+            case CREATURE -> 32;
+            case MISC -> 256;
+            default -> 16;
+        };
+    }
+
+    /**
+     * Decides whether the entity, which is not spawned yet, may be spawned at its position.
+     * @return false if the entity was refused or merged, in which case it must not be spawned
+     */
+    public boolean allowSpawn(Entity entity) {
+        if (!(entity.getWorld() instanceof ServerWorld world))
+            return true;
+
+        String budget = getBudget(entity);
+        int cap = caps.getInt(budget);
+        if (cap <= 0)
+            return true;
+
+        if (countedTick != world.getServer().getTicks()) {
+            countedTick = world.getServer().getTicks();
+            counts.clear();
+        }
+
+        long section = ChunkSectionPos.toLong(entity.getBlockPos());
+        Long2IntMap sections = counts.computeIfAbsent(world, w -> new Object2ObjectOpenHashMap<>()).computeIfAbsent(budget, b -> new Long2IntOpenHashMap());
+        int count = sections.containsKey(section) ? sections.get(section) : countEntities(world, section, budget, cap);
+        if (count < cap) {
+            sections.put(section, count + 1);
+            LuckyBlockMod.OUTCOME_METRICS.recordDensity(budget, Decision.ALLOWED);
+            return true;
+        }
+
+        sections.put(section, count);
+        if (entity instanceof ItemEntity item && merge(world, section, item.getStack().copy())) {
+            LuckyBlockMod.OUTCOME_METRICS.recordDensity(budget, Decision.MERGED);
+        } else LuckyBlockMod.OUTCOME_METRICS.recordDensity(budget, Decision.CLAMPED);
+        return false;
+    }
+
+    private static String getBudget(Entity entity) {
+        return entity instanceof ItemEntity ? ITEMS : entity.getType().getSpawnGroup().getName();
+    }
+
+    /**
+     * Stops counting once {@code limit} entities are found, since the exact count above the cap does not matter.
+     */
+    private static int countEntities(ServerWorld world, long section, String budget, int limit) {
+        List<Entity> found = new ArrayList<>();
+        world.collectEntitiesByType(TypeFilter.instanceOf(Entity.class), getBox(section), entity -> entity.isAlive() && getBudget(entity).equals(budget), found, limit);
+        return found.size();
+    }
+
+    /**
+     * @return whether the whole stack was merged into items in the section
+     */
+    private static boolean merge(ServerWorld world, long section, ItemStack stack) {
+        for (ItemEntity other : world.getEntitiesByClass(ItemEntity.class, getBox(section), other -> other.isAlive() && ItemEntity.canMerge(other.getStack(), stack))) {
+            other.setStack(ItemEntity.merge(other.getStack(), stack, stack.getMaxCount()));
+            if (stack.isEmpty())
+                return true;
+        }
+        return false;
+    }
+
+    private static Box getBox(long section) {
+        ChunkSectionPos pos = ChunkSectionPos.from(section);
+        return new Box(pos.getMinX(), pos.getMinY(), pos.getMinZ(), pos.getMaxX() + 1, pos.getMaxY() + 1, pos.getMaxZ() + 1);
+    }
+
+    public void clear() {
+        counts.clear();
+        countedTick = -1;
+    }
+
+    public enum Decision {
+        ALLOWED,
+        MERGED,
+        CLAMPED
+    }
+}
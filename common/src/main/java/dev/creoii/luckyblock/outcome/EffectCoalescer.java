@@ -0,0 +1,135 @@
+package dev.creoii.luckyblock.outcome;
+
+import dev.creoii.luckyblock.LuckyBlockMod;
+import it.unimi.dsi.fastutil.objects.Object2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.network.packet.s2c.play.ParticleS2CPacket;
+import net.minecraft.particle.ParticleEffect;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.sound.SoundEvent;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the particles outcomes emit during a tick and sends them once the tick ends.
+ * Emissions with the same particle, position, spread and speed are merged into a single packet carrying their total count,
+ * and each player only gets the emissions around them in their own world, closest first, up to {@code lucky.particleBudget} packets a tick.
+ * The players around each emission are found through the {@link dev.creoii.luckyblock.util.PlayerIndex}.
+ * Past {@code lucky.particleLodDistance} blocks the count of a packet falls off with the square of the distance.
+ * <p>
+ * Sounds are played right away, but a sound is only played once per block and tick.
+ */
+public final class EffectCoalescer {
+    /**
+     * The distance {@link ServerWorld#spawnParticles} sends particles that are not forced.
+     */
+    private static final double MAX_DISTANCE = 32d;
+    private final int budget = Integer.getInteger("lucky.particleBudget", 128);
+    private final double lodDistance = Integer.getInteger("lucky.particleLodDistance", 16);
+    private final Map<ServerWorld, Object2IntLinkedOpenHashMap<Emission>> particles = new Reference2ObjectOpenHashMap<>();
+    private final Set<PlayedSound> sounds = new HashSet<>();
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder culled = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    /**
+     * @param delta the spread of the particles, or their velocity once {@code speed} is zero
+     */
+    public void addParticles(ServerWorld world, ParticleEffect particle, Vec3d pos, Vec3d delta, float speed, int count) {
+        if (count <= 0)
+            return;
+
+        particles.computeIfAbsent(world, w -> new Object2IntLinkedOpenHashMap<>()).addTo(new Emission(particle, pos, delta, speed), count);
+        emitted.add(count);
+    }
+
+    /**
+     * @return whether the sound has not been played at this block yet this tick, in which case it should be played
+     */
+    public boolean claimSound(ServerWorld world, SoundEvent sound, Vec3d pos) {
+        if (sounds.add(new PlayedSound(world, sound, BlockPos.ofFloored(pos))))
+            return true;
+
+        deduplicated.increment();
+        return false;
+    }
+
+    public void flush(MinecraftServer server) {
+        sounds.clear();
+        if (particles.isEmpty())
+            return;
+
+        for (Map.Entry<ServerWorld, Object2IntLinkedOpenHashMap<Emission>> entry : particles.entrySet()) {
+            Map<ServerPlayerEntity, List<Emission>> audiences = new Reference2ObjectOpenHashMap<>();
+            for (Emission emission : entry.getValue().keySet()) {
+                LuckyBlockMod.PLAYER_INDEX.forEachPlayerWithin(entry.getKey(), emission.pos, MAX_DISTANCE, player -> audiences.computeIfAbsent(player, p -> new ArrayList<>()).add(emission));
+            }
+            audiences.forEach((player, emissions) -> send(player, emissions, entry.getValue()));
+        }
+        particles.clear();
+    }
+
+    private void send(ServerPlayerEntity player, List<Emission> emissions, Object2IntMap<Emission> counts) {
+        if (emissions.size() > budget) {
+            emissions.sort(Comparator.comparingDouble(emission -> player.squaredDistanceTo(emission.pos)));
+            culled.add(emissions.size() - budget);
+            emissions = emissions.subList(0, budget);
+        }
+
+        for (Emission emission : emissions) {
+            int count = scaleCount(counts.getInt(emission), player.squaredDistanceTo(emission.pos));
+            player.networkHandler.sendPacket(new ParticleS2CPacket(emission.particle, false, emission.pos.x, emission.pos.y, emission.pos.z, (float) emission.delta.x, (float) emission.delta.y, (float) emission.delta.z, emission.speed, count));
+        }
+        sent.add(emissions.size());
+    }
+
+    private int scaleCount(int count, double squaredDistance) {
+        if (squaredDistance <= lodDistance * lodDistance)
+            return count;
+        return Math.max((int) Math.round(count * lodDistance * lodDistance / squaredDistance), 1);
+    }
+
+    public void clear() {
+        particles.clear();
+        sounds.clear();
+    }
+
+    public long getEmitted() {
+        return emitted.sum();
+    }
+
+    public long getSent() {
+        return sent.sum();
+    }
+
+    public long getCulled() {
+        return culled.sum();
+    }
+
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+
+    public void reset() {
+        emitted.reset();
+        sent.reset();
+        culled.reset();
+        deduplicated.reset();
+    }
+
+    private record Emission(ParticleEffect particle, Vec3d pos, Vec3d delta, float speed) {}
+
+    private record PlayedSound(ServerWorld world, SoundEvent sound, BlockPos pos) {}
+}
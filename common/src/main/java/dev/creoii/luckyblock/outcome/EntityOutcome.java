@@ -1,13 +1,17 @@
 package dev.creoii.luckyblock.outcome;
 
+import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.creoii.luckyblock.LuckyBlockMod;
 import dev.creoii.luckyblock.util.LuckyBlockCodecs;
 import dev.creoii.luckyblock.util.nbt.ContextualNbtCompound;
 import dev.creoii.luckyblock.util.vec.VecProvider;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityType;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.registry.Registries;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.intprovider.IntProvider;
@@ -24,62 +28,94 @@ public class EntityOutcome extends Outcome {
                 createGlobalReinitField(Outcome::shouldReinit),
                 Identifier.CODEC.fieldOf("entity_type").forGetter(outcome -> outcome.entityTypeId),
                 IntProvider.POSITIVE_CODEC.fieldOf("count").orElse(LuckyBlockCodecs.ONE).forGetter(outcome -> outcome.count),
-                ContextualNbtCompound.CODEC.optionalFieldOf("nbt").forGetter(outcome -> outcome.nbt)
+                ContextualNbtCompound.CODEC.optionalFieldOf("nbt").forGetter(outcome -> outcome.nbt),
+                Codec.BOOL.fieldOf("spread").orElse(false).forGetter(outcome -> outcome.spread)
         ).apply(instance, EntityOutcome::new);
     });
     private final Identifier entityTypeId;
     private final IntProvider count;
     private final Optional<ContextualNbtCompound> nbt;
+    private final boolean spread;
 
-    public EntityOutcome(int luck, float chance, Optional<Integer> delay, Optional<VecProvider> pos, boolean reinit, Identifier entityTypeId, IntProvider count, Optional<ContextualNbtCompound> nbt) {
+    public EntityOutcome(int luck, float chance, Optional<Integer> delay, Optional<VecProvider> pos, boolean reinit, Identifier entityTypeId, IntProvider count, Optional<ContextualNbtCompound> nbt, boolean spread) {
         super(OutcomeType.ENTITY, luck, chance, delay, pos, reinit);
         this.entityTypeId = entityTypeId;
         this.count = count;
         this.nbt = nbt;
+        this.spread = spread;
     }
 
+    /**
+     * Unless it holds providers, the nbt of the entity is resolved once per run and read into every entity.
+     * With {@code spread} set, the entities are spawned by the {@link SpawnScheduler} over the following ticks.
+     */
     @Override
     public void run(Context context) {
         Vec3d spawnPos = getPos(context).getVec(context);
         EntityType<?> entityType = Registries.ENTITY_TYPE.get(entityTypeId);
-        for (int i = 0; i < count.get(context.world().getRandom()); ++i) {
-            spawnEntity(entityType, context, spawnPos, nbt.orElse(null));
+        ContextualNbtCompound nbtCompound = nbt.orElse(null);
+        NbtCompound resolved = nbtCompound != null && !nbtCompound.hasProviders() ? resolveNbt(entityType, context, nbtCompound) : null;
 
-            if (shouldReinit()) {
-                spawnPos = getPos(context).getVec(context);
+        SpawnScheduler.Spawner spawner = index -> {
+            Vec3d pos = index == 0 || !shouldReinit() ? spawnPos : getPos(context).getVec(context);
+            spawnEntity(entityType, context, pos, nbtCompound, resolved);
+        };
+        int count = this.count.get(context.random());
+        if (spread && context.world() instanceof ServerWorld) {
+            LuckyBlockMod.SPAWN_SCHEDULER.schedule(count, spawner);
+        } else {
+            for (int i = 0; i < count; ++i) {
+                spawner.spawn(i);
             }
         }
     }
 
-    private Entity spawnEntity(EntityType<?> entityType, Context context, Vec3d spawnPos, @Nullable ContextualNbtCompound nbtCompound) {
+    /**
+     * @return the nbt the entity itself reads, as a prototype entity of the type writes it back
+     */
+    @Nullable
+    private static NbtCompound resolveNbt(EntityType<?> entityType, Context context, @Nullable ContextualNbtCompound nbtCompound) {
+        if (nbtCompound == null)
+            return null;
+
+        Entity prototype = entityType.create(context.world());
+        if (prototype == null)
+            return null;
+
+        nbtCompound.setContext(context);
+        return (nbtCompound.contains("nbt", 10) ? nbtCompound.getCompound("nbt") : nbtCompound).resolveFor(prototype);
+    }
+
+    /**
+     * @param resolved the nbt of the entity resolved for the whole run, or null to read it from {@code nbtCompound}
+     * @return the entity, or null if it could not be created or the {@link DensityGuard} refused it
+     */
+    @Nullable
+    private Entity spawnEntity(EntityType<?> entityType, Context context, Vec3d spawnPos, @Nullable ContextualNbtCompound nbtCompound, @Nullable NbtCompound resolved) {
         Entity entity = entityType.create(context.world());
         if (entity != null) {
+            ContextualNbtCompound passengerCompound = null;
             if (nbtCompound != null) {
                 nbtCompound.setContext(context);
 
-                if (nbtCompound.contains("nbt", 10)) {
-                    ContextualNbtCompound nbt = nbtCompound.getCompound("nbt");
-                    entity.readNbt(nbt);
-
-                    if (nbt.contains(Entity.PASSENGERS_KEY, 9)) {
-                        ContextualNbtCompound passengerCompound = nbt.getList(Entity.PASSENGERS_KEY, 10).getCompound(0);
-                        EntityType<?> passengerType = Registries.ENTITY_TYPE.get(Identifier.tryParse(passengerCompound.getString("id")));
-                        Entity passenger = spawnEntity(passengerType, context, spawnPos, passengerCompound);
-                        if (passenger != null)
-                            passenger.startRiding(entity);
-                    }
-                } else if (nbtCompound.contains(Entity.PASSENGERS_KEY, 9)) {
-                    entity.readNbt(nbtCompound);
+                ContextualNbtCompound nbt = nbtCompound.contains("nbt", 10) ? nbtCompound.getCompound("nbt") : nbtCompound;
+                entity.readNbt(resolved != null ? resolved : nbt);
+                if (nbt.contains(Entity.PASSENGERS_KEY, 9))
+                    passengerCompound = nbt.getList(Entity.PASSENGERS_KEY, 10).getCompound(0);
+            }
+            entity.refreshPositionAndAngles(spawnPos.x, spawnPos.y, spawnPos.z, context.random().nextFloat() * 360f, 0f);
+            // the vehicle is checked before its passengers are spawned, so a refused vehicle leaves nothing behind
+            if (!LuckyBlockMod.DENSITY_GUARD.allowSpawn(entity))
+                return null;
+            if (context.world().spawnEntity(entity))
+                LuckyBlockMod.OUTCOME_METRICS.addEntities(1);
 
-                    ContextualNbtCompound passengerCompound = nbtCompound.getList(Entity.PASSENGERS_KEY, 10).getCompound(0);
-                    EntityType<?> passengerType = Registries.ENTITY_TYPE.get(Identifier.tryParse(passengerCompound.getString("id")));
-                    Entity passenger = spawnEntity(passengerType, context, spawnPos, passengerCompound);
-                    if (passenger != null)
-                        passenger.startRiding(entity);
-                } else entity.readNbt(nbtCompound);
+            if (passengerCompound != null) {
+                EntityType<?> passengerType = Registries.ENTITY_TYPE.get(Identifier.tryParse(passengerCompound.getString("id")));
+                Entity passenger = spawnEntity(passengerType, context, spawnPos, passengerCompound, null);
+                if (passenger != null)
+                    passenger.startRiding(entity);
             }
-            entity.refreshPositionAndAngles(spawnPos.x, spawnPos.y, spawnPos.z, context.world().getRandom().nextFloat() * 360f, 0f);
-            context.world().spawnEntity(entity);
         }
         return entity;
     }
@@ -46,10 +46,10 @@ public class FeatureOutcome extends Outcome {
             BlockPos place = getPos(context).getPos(context);
             if (!placementModifiers.isEmpty()) {
                 PlacedFeature placedFeature = new PlacedFeature(dynamicRegistryManager.get(RegistryKeys.CONFIGURED_FEATURE).getEntry(featureId).get(), placementModifiers);
-                if (!placedFeature.generate(serverWorld, serverWorld.getChunkManager().getChunkGenerator(), serverWorld.getRandom(), place)) {
+                if (!placedFeature.generate(serverWorld, serverWorld.getChunkManager().getChunkGenerator(), context.random(), place)) {
                     LuckyBlockMod.LOGGER.error("Failed to generate feature '{}' at '{}'", featureId, place.toShortString());
                 }
-            } else if (!configuredFeature.generate(serverWorld, serverWorld.getChunkManager().getChunkGenerator(), serverWorld.getRandom(), place)) {
+            } else if (!configuredFeature.generate(serverWorld, serverWorld.getChunkManager().getChunkGenerator(), context.random(), place)) {
                 LuckyBlockMod.LOGGER.error("Failed to generate feature '{}' at '{}'", featureId, place.toShortString());
             }
         }
@@ -29,10 +29,10 @@ public class GroupOutcome extends Outcome {
 
     @Override
     public void run(Context context) {
-        int count = this.count.map(intProvider -> intProvider.get(context.world().getRandom())).orElseGet(outcomes::size);
+        int count = this.count.map(intProvider -> intProvider.get(context.random())).orElseGet(outcomes::size);
         if (shouldReinit()) {
             for (int i = 0; i < count; ++i) {
-                outcomes.get(context.world().getRandom().nextInt(outcomes.size())).runOutcome(context);
+                outcomes.get(context.random().nextInt(outcomes.size())).runOutcome(context);
             }
         } else {
             for (int i = 0; i < Math.clamp(count, 0, outcomes.size()); ++i) {
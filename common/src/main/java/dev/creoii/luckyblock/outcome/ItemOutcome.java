@@ -4,6 +4,7 @@ import com.mojang.datafixers.util.Either;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.creoii.luckyblock.LuckyBlockMod;
 import dev.creoii.luckyblock.util.LuckyBlockCodecs;
 import dev.creoii.luckyblock.util.nbt.ContextualNbtCompound;
 import dev.creoii.luckyblock.util.vec.VecProvider;
@@ -11,10 +12,13 @@ import net.minecraft.component.ComponentChanges;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.ItemEntity;
 import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NbtCompound;
 import net.minecraft.registry.Registries;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.intprovider.IntProvider;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Optional;
 import java.util.function.Function;
@@ -32,7 +36,8 @@ public class ItemOutcome extends Outcome {
                 IntProvider.POSITIVE_CODEC.fieldOf("count").orElse(LuckyBlockCodecs.ONE).forGetter(outcome -> outcome.count),
                 ComponentChanges.CODEC.fieldOf("components").orElse(ComponentChanges.EMPTY).forGetter(outcome -> outcome.components),
                 ContextualNbtCompound.CODEC.optionalFieldOf("nbt").forGetter(outcome -> outcome.nbt),
-                VecProvider.VALUE_CODEC.optionalFieldOf("velocity").forGetter(outcome -> outcome.velocity)
+                VecProvider.VALUE_CODEC.optionalFieldOf("velocity").forGetter(outcome -> outcome.velocity),
+                Codec.BOOL.fieldOf("spread").orElse(false).forGetter(outcome -> outcome.spread)
         ).apply(instance, ItemOutcome::new);
     });
     private final ItemStack stack;
@@ -40,97 +45,99 @@ public class ItemOutcome extends Outcome {
     private final ComponentChanges components;
     private final Optional<ContextualNbtCompound> nbt;
     private final Optional<VecProvider> velocity;
+    private final boolean spread;
 
-    public ItemOutcome(int luck, float chance, Optional<Integer> delay, Optional<VecProvider> pos, boolean reinit, ItemStack stack, IntProvider count, ComponentChanges components, Optional<ContextualNbtCompound> nbt, Optional<VecProvider> velocity) {
+    public ItemOutcome(int luck, float chance, Optional<Integer> delay, Optional<VecProvider> pos, boolean reinit, ItemStack stack, IntProvider count, ComponentChanges components, Optional<ContextualNbtCompound> nbt, Optional<VecProvider> velocity, boolean spread) {
         super(OutcomeType.ITEM, luck, chance, delay, pos, reinit);
         this.stack = stack;
         this.count = count;
         this.components = components;
         this.nbt = nbt;
         this.velocity = velocity;
+        this.spread = spread;
     }
 
+    /**
+     * The stack is resolved once per run and copied for every item entity, as is the nbt unless it holds providers.
+     * Nbt with providers is read again for every item entity, so each one samples its own values.
+     * With {@code spread} set, the item entities are spawned by the {@link SpawnScheduler} over the following ticks.
+     */
     @Override
     public void run(Context context) {
         Vec3d spawnPos = getPos().isPresent() ? getPos().get().getVec(context) : context.pos().toCenterPos();
-        Vec3d velocity = null;
-        if (this.velocity.isPresent()) {
-            velocity = this.velocity.get().getVec(context);
-        }
-        int total = count.get(context.world().getRandom()) * stack.getCount();
-
-        if (shouldReinit()) {
-            for (int i = 0; i < total; ++i) {
-                ItemEntity entity = EntityType.ITEM.create(context.world());
-                if (entity != null) {
-                    ItemStack newStack = stack.copy();
-                    if (components != ComponentChanges.EMPTY)
-                        newStack.applyChanges(components);
-
-                    entity.setStack(newStack);
-                    nbt.ifPresent(compound -> {
-                        compound.setContext(context);
-                        entity.readNbt(compound);
-                    });
-                    entity.setPosition(spawnPos.x, spawnPos.y, spawnPos.z);
-
-                    if (velocity != null) {
-                        entity.setVelocity(velocity);
-                        velocity = this.velocity.get().getVec(context);
-                    } else entity.setVelocity(context.world().random.nextDouble() * .2d - .1d, .2d, context.world().random.nextDouble() * .2d - .1d);
+        Vec3d velocity = this.velocity.map(provider -> provider.getVec(context)).orElse(null);
+        int total = count.get(context.random()) * stack.getCount();
 
-                    context.world().spawnEntity(entity);
+        ItemStack prototype = stack.copy();
+        if (components != ComponentChanges.EMPTY)
+            prototype.applyChanges(components);
 
-                    spawnPos = getPos().isPresent() ? getPos().get().getVec(context) : context.pos().toCenterPos();
-                }
-            }
-            return;
+        NbtCompound resolved = nbt.isPresent() && !nbt.get().hasProviders() ? resolveNbt(context, prototype) : null;
+        SpawnScheduler.Spawner spawner;
+        int spawns;
+        if (shouldReinit()) {
+            spawns = total;
+            spawner = index -> {
+                Vec3d pos = index == 0 ? spawnPos : getPos().isPresent() ? getPos().get().getVec(context) : context.pos().toCenterPos();
+                spawnItem(context, prototype.copy(), resolved, pos, index == 0 ? velocity : this.velocity.map(provider -> provider.getVec(context)).orElse(null));
+            };
+        } else {
+            int maxCount = stack.getMaxCount();
+            int fullStacks = total / maxCount;
+            spawns = fullStacks + (total % maxCount > 0 ? 1 : 0);
+            spawner = index -> {
+                if (index < fullStacks) {
+                    spawnItem(context, prototype.copyWithCount(maxCount), resolved, spawnPos, velocity);
+                } else spawnItem(context, prototype.copyWithCount(total % maxCount), resolved, spawnPos, this.velocity.map(provider -> provider.getVec(context)).orElse(null));
+            };
         }
 
-        for (int i = 0; i < total / stack.getMaxCount(); ++i) {
-            ItemEntity entity = EntityType.ITEM.create(context.world());
-            if (entity != null) {
-                ItemStack newStack = stack.copy();
-                if (components != ComponentChanges.EMPTY)
-                    newStack.applyChanges(components);
-
-                newStack.setCount(stack.getMaxCount());
-                entity.setStack(newStack);
-                nbt.ifPresent(compound -> {
-                    compound.setContext(context);
-                    entity.readNbt(compound);
-                });
-                entity.setPosition(spawnPos.x, spawnPos.y, spawnPos.z);
-
-                if (velocity != null) {
-                    entity.setVelocity(velocity);
-                } else entity.setVelocity(context.world().random.nextDouble() * .2d - .1d, .2d, context.world().random.nextDouble() * .2d - .1d);
-
-                context.world().spawnEntity(entity);
+        if (spread && context.world() instanceof ServerWorld) {
+            LuckyBlockMod.SPAWN_SCHEDULER.schedule(spawns, spawner);
+        } else {
+            for (int i = 0; i < spawns; ++i) {
+                spawner.spawn(i);
             }
         }
+    }
+
+    @Nullable
+    private NbtCompound resolveNbt(Context context, ItemStack prototype) {
+        if (nbt.isEmpty())
+            return null;
 
-        if (total % stack.getMaxCount() > 0) {
-            ItemEntity entity = EntityType.ITEM.create(context.world());
-            if (entity != null) {
-                ItemStack remainder = stack.copy();
-                if (components != ComponentChanges.EMPTY)
-                    remainder.applyChanges(components);
+        ItemEntity entity = EntityType.ITEM.create(context.world());
+        if (entity == null)
+            return null;
 
-                remainder.setCount(total % stack.getMaxCount());
-                entity.setStack(remainder);
-                nbt.ifPresent(compound -> {
-                    compound.setContext(context);
-                    entity.readNbt(compound);
-                });
-                entity.setPosition(spawnPos.x, spawnPos.y, spawnPos.z);
+        entity.setStack(prototype.copy());
+        nbt.get().setContext(context);
+        return nbt.get().resolveFor(entity);
+    }
 
-                if (velocity != null) {
-                    entity.setVelocity(this.velocity.get().getVec(context));
-                } else entity.setVelocity(context.world().random.nextDouble() * .2d - .1d, .2d, context.world().random.nextDouble() * .2d - .1d);
+    /**
+     * @param resolved the nbt resolved for the whole run, or null to read the outcome nbt for this item
+     * @param velocity the velocity of the item, or null for a random one
+     */
+    private void spawnItem(Context context, ItemStack stack, @Nullable NbtCompound resolved, Vec3d pos, @Nullable Vec3d velocity) {
+        ItemEntity entity = EntityType.ITEM.create(context.world());
+        if (entity == null)
+            return;
 
-                context.world().spawnEntity(entity);
-            }
-        }
+        entity.setStack(stack);
+        if (resolved != null) {
+            entity.readNbt(resolved);
+        } else nbt.ifPresent(compound -> {
+            compound.setContext(context);
+            entity.readNbt(compound);
+        });
+        entity.setPosition(pos.x, pos.y, pos.z);
+
+        if (velocity != null) {
+            entity.setVelocity(velocity);
+        } else entity.setVelocity(context.random().nextDouble() * .2d - .1d, .2d, context.random().nextDouble() * .2d - .1d);
+
+        if (LuckyBlockMod.DENSITY_GUARD.allowSpawn(entity) && context.world().spawnEntity(entity))
+            LuckyBlockMod.OUTCOME_METRICS.addEntities(1);
     }
 }
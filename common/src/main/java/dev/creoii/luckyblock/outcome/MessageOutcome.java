@@ -3,11 +3,12 @@ package dev.creoii.luckyblock.outcome;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
-import dev.creoii.luckyblock.util.FunctionUtils;
+import dev.creoii.luckyblock.util.template.StringTemplate;
 import net.minecraft.text.MutableText;
 import net.minecraft.text.PlainTextContent;
 import net.minecraft.text.Text;
 import net.minecraft.text.TextCodecs;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Optional;
 
@@ -22,6 +23,7 @@ public class MessageOutcome extends Outcome {
     });
     private final Text message;
     private final boolean overlay;
+    @Nullable private StringTemplate template;
 
     public MessageOutcome(int luck, float chance, Optional<Integer> delay, Text message, boolean overlay) {
         super(OutcomeType.MESSAGE, luck, chance, delay, Optional.empty(), false);
@@ -31,12 +33,14 @@ public class MessageOutcome extends Outcome {
 
     @Override
     public void run(Context context) {
+        if (message.getString() == null)
+            return;
+        if (template == null)
+            template = StringTemplate.compile(message.getString());
+
+        String parsed = template.render(context);
         context.world().getPlayers().forEach(player -> {
             if (player.getWorld() == context.world()) {
-                if (message.getString() == null)
-                    return;
-
-                String parsed = FunctionUtils.parseString(message.getString(), context);
                 player.sendMessage(MutableText.of(PlainTextContent.of(parsed)).setStyle(message.getStyle()), overlay);
             }
         });
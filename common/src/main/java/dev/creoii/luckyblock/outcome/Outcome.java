@@ -5,11 +5,18 @@ import com.mojang.serialization.codecs.RecordCodecBuilder;
 import dev.creoii.luckyblock.LuckyBlockMod;
 import dev.creoii.luckyblock.util.vec.ConstantVecProvider;
 import dev.creoii.luckyblock.util.vec.VecProvider;
+import it.unimi.dsi.fastutil.HashCommon;
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
 import net.minecraft.util.dynamic.Codecs;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.random.LocalRandom;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.util.profiler.Profiler;
 import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Optional;
 import java.util.function.Function;
@@ -85,12 +92,52 @@ public abstract class Outcome {
     }
 
     public void runOutcome(Context context) {
+        runOutcome(context, null);
+    }
+
+    /**
+     * @param id the id of the outcome file this outcome was decoded from, or null if it is nested in another outcome
+     */
+    public void runOutcome(Context context, @Nullable Identifier id) {
         if (getDelay().orElse(0) == 0) {
+            runTracked(context, id);
+        } else LuckyBlockMod.OUTCOME_MANAGER.addDelay(this, context, getDelay().orElse(0), id);
+    }
+
+    /**
+     * Runs the outcome now, inside a profiler section named after its type and timed by {@link OutcomeMetrics}.
+     */
+    public void runTracked(Context context, @Nullable Identifier id) {
+        Profiler profiler = context.world().getProfiler();
+        profiler.push(() -> OutcomeMetrics.getName(type));
+        int frame = LuckyBlockMod.OUTCOME_METRICS.begin(type, id, context);
+        try {
             run(context);
-        } else LuckyBlockMod.OUTCOME_MANAGER.addDelay(this, context, getDelay().orElse(0));
+        } finally {
+            LuckyBlockMod.OUTCOME_METRICS.end(frame);
+            profiler.pop();
+        }
     }
 
     public abstract void run(Context context);
 
-    public record Context(World world, BlockPos pos, BlockState state, PlayerEntity player) {}
+    /**
+     * @param random the random every sample of the outcome draws from, derived from the world seed, the position and the game time
+     *               so a break can be replayed exactly and never contends on the world random
+     * @param seed the seed the random was created with, saved with delayed outcomes so they draw the same values after a restart
+     */
+    public record Context(World world, BlockPos pos, BlockState state, PlayerEntity player, Random random, long seed) {
+        public Context(World world, BlockPos pos, BlockState state, PlayerEntity player) {
+            this(world, pos, state, player, createSeed(world, pos));
+        }
+
+        public Context(World world, BlockPos pos, BlockState state, PlayerEntity player, long seed) {
+            this(world, pos, state, player, new LocalRandom(seed), seed);
+        }
+
+        public static long createSeed(World world, BlockPos pos) {
+            long seed = world instanceof ServerWorld serverWorld ? serverWorld.getSeed() : 0L;
+            return HashCommon.murmurHash3(seed ^ HashCommon.murmurHash3(pos.asLong() ^ HashCommon.murmurHash3(world.getTime())));
+        }
+    }
 }
@@ -1,181 +1,328 @@
 package dev.creoii.luckyblock.outcome;
 
-import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.JsonOps;
 import dev.creoii.luckyblock.LuckyBlockContainer;
 import dev.creoii.luckyblock.LuckyBlockMod;
-import dev.creoii.luckyblock.util.FunctionUtils;
+import dev.creoii.luckyblock.util.template.JsonTemplate;
+import net.minecraft.block.BlockState;
 import net.minecraft.entity.player.PlayerEntity;
-import net.minecraft.resource.JsonDataLoader;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtHelper;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.registry.Registries;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceFinder;
 import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourceReloader;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.JsonHelper;
 import net.minecraft.util.Pair;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.random.Random;
 import net.minecraft.util.profiler.Profiler;
-import org.apache.commons.lang3.mutable.MutableInt;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
-public class OutcomeManager extends JsonDataLoader {
+public class OutcomeManager implements ResourceReloader {
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().setLenient().create();
-    private final Map<Pair<Outcome, Outcome.Context>, MutableInt> delays = Maps.newHashMap();
+    private static final ResourceFinder FINDER = ResourceFinder.json("outcomes");
+    private static final Comparator<DelayedOutcome> READY_ORDER = Comparator.comparingInt((DelayedOutcome delayed) -> delayed.outcome().getType().priority()).reversed().thenComparingLong(DelayedOutcome::sequence);
+    private volatile Map<Identifier, CompiledOutcome> outcomes = Map.of();
+    private final PriorityQueue<DelayedOutcome> delays = new PriorityQueue<>();
+    private final PriorityQueue<DelayedOutcome> ready = new PriorityQueue<>(READY_ORDER);
+    private long tickBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Integer.getInteger("lucky.delayTickBudget", 10));
+    private long currentTick;
+    private long nextSequence;
+    private int lastDeferred;
+    private long totalDeferred;
 
-    public OutcomeManager() {
-        super(GSON, "outcomes");
+    /**
+     * Compiles the outcomes on the prepare executor, then swaps them into their containers on the apply executor.
+     */
+    @Override
+    public CompletableFuture<Void> reload(Synchronizer synchronizer, ResourceManager manager, Profiler prepareProfiler, Profiler applyProfiler, Executor prepareExecutor, Executor applyExecutor) {
+        return CompletableFuture.supplyAsync(() -> load(manager), prepareExecutor)
+                .thenCompose(prepared -> compile(prepared, prepareExecutor))
+                .thenCompose(synchronizer::whenPrepared)
+                .thenAcceptAsync(this::apply, applyExecutor);
     }
 
-    @Override
-    protected void apply(Map<Identifier, JsonElement> prepared, ResourceManager manager, Profiler profiler) {
+    private static Map<Identifier, JsonElement> load(ResourceManager manager) {
+        Map<Identifier, JsonElement> prepared = new HashMap<>();
+        for (Map.Entry<Identifier, Resource> entry : FINDER.findResources(manager).entrySet()) {
+            Identifier id = FINDER.toResourceId(entry.getKey());
+            try (Reader reader = entry.getValue().getReader()) {
+                prepared.put(id, JsonHelper.deserialize(GSON, reader, JsonElement.class));
+            } catch (IllegalArgumentException | IOException | JsonParseException e) {
+                LuckyBlockMod.LOGGER.error("Couldn't parse outcome file '{}' from '{}'", id, entry.getKey(), e);
+            }
+        }
+        return prepared;
+    }
+
+    /**
+     * Compiles every outcome file that changed since the last reload, reusing the compiled outcome of files whose json is unchanged.
+     */
+    private CompletableFuture<Compiled> compile(Map<Identifier, JsonElement> prepared, Executor executor) {
+        Map<Identifier, CompiledOutcome> previous = outcomes;
+        Map<Identifier, CompletableFuture<CompiledOutcome>> futures = new HashMap<>();
         for (Map.Entry<Identifier, JsonElement> entry : prepared.entrySet()) {
-            if (!entry.getValue().isJsonObject())
+            if (!entry.getValue().isJsonObject() || LuckyBlockMod.luckyBlockManager.getContainer(entry.getKey().getNamespace()) == null)
                 continue;
 
+            JsonObject json = entry.getValue().getAsJsonObject();
+            CompiledOutcome outcome = previous.get(entry.getKey());
+            if (outcome != null && outcome.getJson().equals(json)) {
+                futures.put(entry.getKey(), CompletableFuture.completedFuture(outcome));
+            } else futures.put(entry.getKey(), CompletableFuture.supplyAsync(() -> CompiledOutcome.compile(entry.getKey(), json), executor));
+        }
 
-            LuckyBlockContainer container = LuckyBlockMod.luckyBlockManager.getContainer(entry.getKey().getNamespace());
-            if (container == null)
-                continue;
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).thenApplyAsync(v -> {
+            Map<Identifier, CompiledOutcome> compiled = new HashMap<>();
+            int changed = 0;
+            for (Map.Entry<Identifier, CompletableFuture<CompiledOutcome>> entry : futures.entrySet()) {
+                CompiledOutcome outcome = entry.getValue().join();
+                if (outcome != previous.get(entry.getKey()))
+                    ++changed;
+                compiled.put(entry.getKey(), outcome);
+            }
 
-            LuckyBlockMod.LOGGER.info("Loading outcome '{}'", entry.getKey());
-            if (entry.getKey().getPath().startsWith("nonrandom/")) {
-                container.addNonRandomOutcome(entry.getKey(), (JsonObject) entry.getValue());
-            } else container.addRandomOutcome(entry.getKey(), (JsonObject) entry.getValue());
-        }
+            Map<String, Map<Identifier, CompiledOutcome>> random = new HashMap<>();
+            Map<String, Map<Identifier, CompiledOutcome>> nonrandom = new HashMap<>();
+            for (Map.Entry<Identifier, CompiledOutcome> entry : compiled.entrySet()) {
+                Map<String, Map<Identifier, CompiledOutcome>> group = entry.getKey().getPath().startsWith("nonrandom/") ? nonrandom : random;
+                group.computeIfAbsent(entry.getKey().getNamespace(), namespace -> new HashMap<>()).put(entry.getKey(), entry.getValue());
+            }
+
+            Map<LuckyBlockContainer, LuckyBlockContainer.Outcomes> containers = new HashMap<>();
+            for (LuckyBlockContainer container : LuckyBlockMod.luckyBlockManager.getAllContainers()) {
+                String namespace = container.getId().getNamespace();
+                containers.put(container, LuckyBlockContainer.Outcomes.create(random.getOrDefault(namespace, Map.of()), nonrandom.getOrDefault(namespace, Map.of())));
+            }
+            return new Compiled(compiled, containers, changed);
+        }, executor);
+    }
+
+    private void apply(Compiled compiled) {
+        compiled.containers().forEach(LuckyBlockContainer::setOutcomes);
+        outcomes = compiled.outcomes();
+        LuckyBlockMod.LOGGER.info("Loaded {} outcomes, {} of them changed", compiled.outcomes().size(), compiled.changed());
     }
 
+    /**
+     * Runs the delayed outcomes that are due, highest {@link OutcomeType#priority()} first and in scheduling order otherwise.
+     * Once the tick budget is used up the rest rolls over to the next tick, at least one outcome runs every tick.
+     */
     public void tickDelays(MinecraftServer server) {
         if (server.getTickManager().shouldTick()) {
-            if (delays.isEmpty())
-                return;
-
-            List<Pair<Outcome, Outcome.Context>> toRemove = new ArrayList<>();
+            ++currentTick;
+            while (!delays.isEmpty() && delays.peek().dueTick() <= currentTick) {
+                ready.add(delays.poll());
+            }
 
-            delays.forEach((pair, integer) -> {
-                if (integer.decrementAndGet() <= 0) {
-                    pair.getLeft().run(pair.getRight());
-                    toRemove.add(pair);
+            if (!ready.isEmpty()) {
+                Profiler profiler = server.getProfiler();
+                profiler.push("luckyDelays");
+                long start = System.nanoTime();
+                int ran = 0;
+                while (!ready.isEmpty()) {
+                    DelayedOutcome delayed = ready.poll();
+                    markDirty(delayed.context());
+                    delayed.outcome().runTracked(delayed.context(), delayed.id());
+                    ++ran;
+                    if (System.nanoTime() - start >= tickBudgetNanos)
+                        break;
                 }
-            });
-
-            toRemove.forEach(delays::remove);
+                LuckyBlockMod.OUTCOME_METRICS.recordDelayBatch(System.nanoTime() - start, ran, ready.size());
+                profiler.pop();
+            }
+            lastDeferred = ready.size();
+            totalDeferred += lastDeferred;
         }
+        LuckyBlockMod.OUTCOME_METRICS.tick();
     }
 
-    public void addDelay(Outcome outcome, Outcome.Context context, int delay) {
-        delays.put(new Pair<>(outcome, context), new MutableInt(delay));
+    /**
+     * @param id the outcome file the outcome was decoded from, kept so the delayed run is still attributed to it
+     */
+    public void addDelay(Outcome outcome, Outcome.Context context, int delay, @Nullable Identifier id) {
+        delays.add(new DelayedOutcome(currentTick + delay, nextSequence++, outcome, context, id));
+        markDirty(context);
     }
 
-    @Nullable
-    public JsonObject getOutcomeById(Identifier id) {
-        LuckyBlockContainer container = LuckyBlockMod.luckyBlockManager.getContainer(id.getNamespace());
-        if (container == null) {
-            throw new IllegalArgumentException("Lucky Block container '" + id.getNamespace() + "' not found");
-        }
-        Map<Identifier, JsonObject> nonrandomOutcomes = container.getNonrandomOutcomes();
-        if (nonrandomOutcomes.isEmpty()) {
-            throw new IllegalArgumentException("No nonrandom outcomes found");
-        }
-
-        for (Map.Entry<Identifier, JsonObject> outcome : nonrandomOutcomes.entrySet()) {
-            if (outcome.getKey().equals(id)) {
-                return outcome.getValue();
-            }
-        }
-
-        Map<Identifier, JsonObject> randomOutcomes = container.getRandomOutcomes();
-        if (randomOutcomes.isEmpty()) {
-            throw new IllegalArgumentException("No random outcomes found");
-        }
+    public void clearDelays() {
+        delays.clear();
+        ready.clear();
+        lastDeferred = 0;
+    }
 
-        for (Map.Entry<Identifier, JsonObject> outcome : randomOutcomes.entrySet()) {
-            if (outcome.getKey().equals(id)) {
-                return outcome.getValue();
-            }
-        }
+    public int getTickBudget() {
+        return (int) TimeUnit.NANOSECONDS.toMillis(tickBudgetNanos);
+    }
 
-        throw new IllegalArgumentException("Outcome '" + id + "' does not exist");
+    public void setTickBudget(int millis) {
+        tickBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
     }
 
-    public Pair<Identifier, JsonObject> getRandomOutcome(String namespace, Random random, int luck, @Nullable PlayerEntity player) {
-        LuckyBlockContainer container = LuckyBlockMod.luckyBlockManager.getContainer(namespace);
-        if (container == null) {
-            throw new IllegalArgumentException("Lucky Block container '" + namespace + "' not found");
-        }
-        Map<Identifier, JsonObject> randomOutcomes = container.getRandomOutcomes();
-        if (randomOutcomes.isEmpty()) {
-            throw new IllegalArgumentException("No outcomes found");
-        }
+    /**
+     * @return the number of delayed outcomes that are waiting, due or not
+     */
+    public int getQueueDepth() {
+        return delays.size() + ready.size();
+    }
 
-        int lowest = 0, highest = 0;
+    /**
+     * @return the number of due outcomes that did not fit in the budget of the last tick
+     */
+    public int getLastDeferred() {
+        return lastDeferred;
+    }
 
-        for (Map.Entry<Identifier, JsonObject> outcome : randomOutcomes.entrySet()) {
-            int outcomeLuck;
-            try {
-                outcomeLuck = outcome.getValue().getAsJsonPrimitive("luck").getAsInt();
-            } catch (Exception e) {
-                outcomeLuck = 0;
-            }
+    /**
+     * @return the number of times a due outcome was rolled over to the next tick
+     */
+    public long getTotalDeferred() {
+        return totalDeferred;
+    }
 
-            if (outcomeLuck < lowest)
-                lowest = outcomeLuck;
-            if (outcomeLuck > highest)
-                highest = outcomeLuck;
+    private void markDirty(Outcome.Context context) {
+        if (context.world() instanceof ServerWorld serverWorld) {
+            DelayedOutcomeState.get(serverWorld).markDirty();
         }
+    }
 
-        highest += -1 * lowest + 1;
+    /**
+     * Writes every delayed outcome queued in the world, for {@link DelayedOutcomeState}.
+     */
+    public void writeDelays(ServerWorld world, NbtList list) {
+        writeDelays(world, ready, list);
+        writeDelays(world, delays, list);
+    }
 
-        double totalWeight = 0d;
-        List<Double> weights = new ArrayList<>();
-        weights.add(0d);
+    private void writeDelays(ServerWorld world, Collection<DelayedOutcome> queue, NbtList list) {
+        for (DelayedOutcome delayed : queue) {
+            if (delayed.context().world() != world)
+                continue;
 
-        for (Map.Entry<Identifier, JsonObject> outcome : randomOutcomes.entrySet()) {
-            int outcomeLuck;
+            Optional<NbtElement> outcome;
             try {
-                outcomeLuck = outcome.getValue().getAsJsonPrimitive("luck").getAsInt() + (-1 * lowest) + 1;
-            } catch (Exception e) {
-                outcomeLuck = (-1 * lowest) + 1;
+                outcome = Outcome.CODEC.encodeStart(NbtOps.INSTANCE, delayed.outcome()).resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error saving delayed outcome: {}", string));
+            } catch (RuntimeException e) {
+                LuckyBlockMod.LOGGER.error("Error saving delayed outcome", e);
+                continue;
             }
+            if (outcome.isEmpty())
+                continue;
 
-            double outcomeChance;
-            try {
-                outcomeChance = outcome.getValue().getAsJsonPrimitive("chance").getAsDouble();
-            } catch (Exception e) {
-                outcomeChance = 1d;
+            Outcome.Context context = delayed.context();
+            NbtCompound nbt = new NbtCompound();
+            nbt.put("outcome", outcome.get());
+            nbt.putInt("remaining", (int) Math.max(delayed.dueTick() - currentTick, 0L));
+            nbt.putLong("pos", context.pos().asLong());
+            nbt.putLong("seed", context.seed());
+            nbt.put("state", NbtHelper.fromBlockState(context.state()));
+            if (context.player() != null) {
+                nbt.putUuid("player", context.player().getUuid());
             }
-
-            double adjusted = Math.pow(1d / (1d - Math.abs(luck) * .77d / 100d), luck >= 0 ? outcomeLuck : highest + 1 - outcomeLuck);
-            weights.add(totalWeight += (outcomeChance > 0d ? outcomeChance : 1d) * adjusted * 100);
+            if (delayed.id() != null) {
+                nbt.putString("id", delayed.id().toString());
+            }
+            list.add(nbt);
         }
+    }
 
-        double rIndex = random.nextDouble() * totalWeight;
-        int index = -1;
-        for (int i = 0; i < weights.size() - 1; ++i) {
-            if (rIndex >= weights.get(i) && rIndex < weights.get(i + 1)) {
-                index = i;
-            }
+    /**
+     * Queues the delayed outcomes that were saved in the chunk, called once the chunk is loaded.
+     */
+    public void restoreDelays(ServerWorld world, ChunkPos chunkPos) {
+        NbtList list = DelayedOutcomeState.get(world).takePending(chunkPos);
+        if (list == null)
+            return;
+
+        for (int i = 0; i < list.size(); ++i) {
+            NbtCompound nbt = list.getCompound(i);
+            Outcome.CODEC.parse(NbtOps.INSTANCE, nbt.get("outcome")).resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error restoring delayed outcome: {}", string)).ifPresent(outcome -> {
+                PlayerEntity player = nbt.containsUuid("player") ? world.getServer().getPlayerManager().getPlayer(nbt.getUuid("player")) : null;
+                BlockState state = NbtHelper.toBlockState(Registries.BLOCK.getReadOnlyWrapper(), nbt.getCompound("state"));
+                Identifier id = nbt.contains("id", NbtElement.STRING_TYPE) ? Identifier.tryParse(nbt.getString("id")) : null;
+                BlockPos pos = BlockPos.fromLong(nbt.getLong("pos"));
+                // entries saved before the seed was stored get a new one
+                long seed = nbt.contains("seed", NbtElement.LONG_TYPE) ? nbt.getLong("seed") : Outcome.Context.createSeed(world, pos);
+                addDelay(outcome, new Outcome.Context(world, pos, state, player, seed), nbt.getInt("remaining"), id);
+            });
         }
+    }
+
+    /**
+     * @return the random or nonrandom outcome with the id, or null if its container or the outcome does not exist
+     */
+    @Nullable
+    public CompiledOutcome getOutcomeById(Identifier id) {
+        LuckyBlockContainer container = LuckyBlockMod.luckyBlockManager.getContainer(id.getNamespace());
+        return container != null ? container.getOutcomes().get(id) : null;
+    }
 
-        if (index == -1)
-            index = weights.size() - 2;
+    public Pair<Identifier, CompiledOutcome> getRandomOutcome(String namespace, Random random, int luck, @Nullable PlayerEntity player) {
+        LuckyBlockContainer container = LuckyBlockMod.luckyBlockManager.getContainer(namespace);
+        if (container == null) {
+            throw new IllegalArgumentException("Lucky Block container '" + namespace + "' not found");
+        }
+        OutcomeTable table = container.getRandomOutcomeTable();
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("No outcomes found");
+        }
 
-        @SuppressWarnings("unchecked") Map.Entry<Identifier, JsonObject> entry = randomOutcomes.entrySet().toArray(new Map.Entry[]{})[index];
-        return new Pair<>(entry.getKey(), entry.getValue());
+        int index = table.sample(random, luck);
+        return new Pair<>(table.getId(index), table.getOutcome(index));
     }
 
     @Nullable
     public Outcome parseJsonOutcome(JsonObject object, Outcome.Context context) {
-        JsonObject parsedObject = GSON.fromJson(FunctionUtils.parseString(object.toString(), context), JsonObject.class);
-        DataResult<Outcome> dataResult = Outcome.CODEC.parse(JsonOps.INSTANCE, parsedObject);
+        return decodeOutcome(JsonTemplate.compile(object).render(context));
+    }
+
+    @Nullable
+    public Outcome decodeOutcome(JsonElement element) {
+        DataResult<Outcome> dataResult = Outcome.CODEC.parse(JsonOps.INSTANCE, element);
         Optional<Outcome> outcome = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing outcome: {}", string));
         return outcome.orElse(null);
     }
+
+    /**
+     * The result of compiling a reload, every compiled outcome by id and the outcomes grouped into their containers.
+     */
+    private record Compiled(Map<Identifier, CompiledOutcome> outcomes, Map<LuckyBlockContainer, LuckyBlockContainer.Outcomes> containers, int changed) {}
+
+    /**
+     * An outcome waiting in the delay queue, ordered by the tick it is due on and then by the order it was scheduled in.
+     */
+    private record DelayedOutcome(long dueTick, long sequence, Outcome outcome, Outcome.Context context, @Nullable Identifier id) implements Comparable<DelayedOutcome> {
+        @Override
+        public int compareTo(DelayedOutcome other) {
+            int compare = Long.compare(dueTick, other.dueTick);
+            return compare != 0 ? compare : Long.compare(sequence, other.sequence);
+        }
+    }
 }
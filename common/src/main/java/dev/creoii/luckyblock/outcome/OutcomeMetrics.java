@@ -0,0 +1,397 @@
+package dev.creoii.luckyblock.outcome;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import dev.creoii.luckyblock.LuckyBlockMod;
+import dev.creoii.luckyblock.util.LatencyHistogram;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.Vec3d;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Counters and latency histograms for every outcome type and outcome id, read through {@code /lucky stats}.
+ * Execution is timed around {@link Outcome#runOutcome}, parsing around {@link CompiledOutcome#get}. The time of a type
+ * includes the outcomes nested in it, so a group is always at least as slow as the outcomes it runs.
+ * <p>
+ * Blocks, entities and packets are counted on the innermost running outcome and added to the outcomes around it once it ends.
+ * Every thread keeps its own stack of running outcomes in preallocated arrays, so timing a run allocates nothing. The statistics are shared.
+ */
+public final class OutcomeMetrics {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Path DUMP_DIRECTORY = Path.of("logs", LuckyBlockMod.NAMESPACE);
+    private static final DateTimeFormatter DUMP_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final int MAX_DUMPS = 10;
+    private static final String CSV_HEADER = "scope,key,runs,total_ms,mean_us,p50_us,p90_us,p99_us,max_us,parses,parse_p50_us,parse_p99_us,blocks,entities,packets";
+    private final Map<OutcomeType, Stats> types = new ConcurrentHashMap<>();
+    private final Map<Identifier, Stats> outcomes = new ConcurrentHashMap<>();
+    private final Stats delays = new Stats();
+    private final Map<String, Map<DensityGuard.Decision, LongAdder>> density = new ConcurrentHashMap<>();
+    private final OutcomeWatchdog watchdog = new OutcomeWatchdog();
+    private final long dumpIntervalNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger("lucky.statsDumpInterval", 0));
+    private final ThreadLocal<Frames> frames = ThreadLocal.withInitial(Frames::new);
+    private long lastDump = System.nanoTime();
+
+    /**
+     * Starts timing an outcome, every call must be followed by {@link #end(int)}.
+     * @param id the id of the outcome file, or null for nested and delayed outcomes
+     * @return the frame of the run, to pass to {@link #end(int)}
+     */
+    public int begin(OutcomeType type, @Nullable Identifier id, Outcome.Context context) {
+        return frames.get().push(type, id, context, System.nanoTime());
+    }
+
+    /**
+     * Records the run, and samples it in the {@link OutcomeWatchdog} if it is not nested and took longer than its threshold.
+     * Runs nested in the frame that did not end are dropped with it.
+     */
+    public void end(int frame) {
+        Frames frames = this.frames.get();
+        long nanos = System.nanoTime() - frames.starts[frame];
+        OutcomeType type = frames.types[frame];
+        Identifier id = frames.ids[frame];
+        Outcome.Context context = frames.contexts[frame];
+        Vec3d shapeSize = frames.shapeSizes[frame];
+        int blocks = frames.blocks[frame];
+        int entities = frames.entities[frame];
+        int packets = frames.packets[frame];
+        frames.pop(frame);
+
+        types.computeIfAbsent(type, t -> new Stats()).record(nanos, blocks, entities, packets);
+        if (id != null)
+            outcomes.computeIfAbsent(id, i -> new Stats()).record(nanos, blocks, entities, packets);
+
+        if (frame > 0) {
+            int parent = frame - 1;
+            frames.blocks[parent] += blocks;
+            frames.entities[parent] += entities;
+            frames.packets[parent] += packets;
+            frames.addShapeSize(parent, shapeSize);
+        } else if (watchdog.exceeds(nanos))
+            watchdog.sample(type, id, context, nanos, shapeSize, blocks, entities, packets);
+    }
+
+    public void recordParse(Identifier id, long nanos) {
+        outcomes.computeIfAbsent(id, key -> new Stats()).parse.record(nanos);
+    }
+
+    /**
+     * @param ran the number of delayed outcomes that ran in the batch
+     * @param waiting the number of due outcomes left for the next tick
+     */
+    public void recordDelayBatch(long nanos, int ran, int waiting) {
+        delays.runs.add(ran);
+        delays.execution.record(nanos);
+        if (watchdog.exceeds(nanos))
+            watchdog.sampleBatch(nanos, ran, waiting);
+    }
+
+    /**
+     * @param budget the spawn group name, or {@link DensityGuard#ITEMS}
+     */
+    public void recordDensity(String budget, DensityGuard.Decision decision) {
+        density.computeIfAbsent(budget, b -> new ConcurrentHashMap<>()).computeIfAbsent(decision, d -> new LongAdder()).increment();
+    }
+
+    public void addBlocks(int count) {
+        Frames frames = this.frames.get();
+        if (frames.depth > 0)
+            frames.blocks[frames.depth - 1] += count;
+    }
+
+    public void addEntities(int count) {
+        Frames frames = this.frames.get();
+        if (frames.depth > 0)
+            frames.entities[frames.depth - 1] += count;
+    }
+
+    public void addPackets(int count) {
+        Frames frames = this.frames.get();
+        if (frames.depth > 0)
+            frames.packets[frames.depth - 1] += count;
+    }
+
+    public void addShapeSize(Vec3d size) {
+        Frames frames = this.frames.get();
+        if (frames.depth > 0)
+            frames.addShapeSize(frames.depth - 1, size);
+    }
+
+    public OutcomeWatchdog getWatchdog() {
+        return watchdog;
+    }
+
+    public Map<OutcomeType, Stats> getTypes() {
+        return types;
+    }
+
+    public Map<Identifier, Stats> getOutcomes() {
+        return outcomes;
+    }
+
+    public Stats getDelays() {
+        return delays;
+    }
+
+    /**
+     * @return how often the {@link DensityGuard} made each decision, by budget
+     */
+    public Map<String, Map<DensityGuard.Decision, LongAdder>> getDensity() {
+        return density;
+    }
+
+    /**
+     * @return the entries with the most total execution time first
+     */
+    public static <K> List<Map.Entry<K, Stats>> sortByTotal(Map<K, Stats> stats) {
+        return stats.entrySet().stream().sorted(Comparator.comparingLong((Map.Entry<K, Stats> entry) -> entry.getValue().execution.getTotal()).reversed()).toList();
+    }
+
+    public void reset() {
+        types.clear();
+        outcomes.clear();
+        delays.reset();
+        density.clear();
+    }
+
+    /**
+     * Dumps the statistics every {@code lucky.statsDumpInterval} seconds, if the property is set. Called every tick.
+     */
+    public void tick() {
+        if (dumpIntervalNanos <= 0L || System.nanoTime() - lastDump < dumpIntervalNanos)
+            return;
+
+        dump().exceptionally(throwable -> {
+            LuckyBlockMod.LOGGER.warn("Failed to dump outcome statistics", throwable);
+            return null;
+        });
+    }
+
+    /**
+     * Writes the statistics as json and csv to {@code logs/lucky}, keeping the last {@value #MAX_DUMPS} dumps of each.
+     * The dump is built on the calling thread and written on the io executor.
+     * @return the json file
+     */
+    public CompletableFuture<Path> dump() {
+        lastDump = System.nanoTime();
+        String name = "stats-" + LocalDateTime.now().format(DUMP_NAME);
+        String json = GSON.toJson(toJson());
+        String csv = toCsv();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Files.createDirectories(DUMP_DIRECTORY);
+                Path path = DUMP_DIRECTORY.resolve(name + ".json");
+                Files.writeString(path, json);
+                Files.writeString(DUMP_DIRECTORY.resolve(name + ".csv"), csv);
+                prune(".json");
+                prune(".csv");
+                return path;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, Util.getIoWorkerExecutor());
+    }
+
+    private static void prune(String extension) throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> paths = Files.list(DUMP_DIRECTORY)) {
+            dumps = paths.filter(path -> {
+                String fileName = path.getFileName().toString();
+                return fileName.startsWith("stats-") && fileName.endsWith(extension);
+            }).sorted().toList();
+        }
+        for (int i = 0; i < dumps.size() - MAX_DUMPS; ++i) {
+            Files.deleteIfExists(dumps.get(i));
+        }
+    }
+
+    private JsonObject toJson() {
+        JsonObject types = new JsonObject();
+        sortByTotal(this.types).forEach(entry -> types.add(getName(entry.getKey()), entry.getValue().toJson()));
+        JsonObject outcomes = new JsonObject();
+        sortByTotal(this.outcomes).forEach(entry -> outcomes.add(entry.getKey().toString(), entry.getValue().toJson()));
+
+        JsonObject json = new JsonObject();
+        json.add("types", types);
+        json.add("outcomes", outcomes);
+        json.add("delays", delays.toJson());
+        JsonObject density = new JsonObject();
+        this.density.forEach((budget, decisions) -> {
+            JsonObject counts = new JsonObject();
+            decisions.forEach((decision, count) -> counts.addProperty(decision.name().toLowerCase(Locale.ROOT), count.sum()));
+            density.add(budget, counts);
+        });
+        json.add("density", density);
+        return json;
+    }
+
+    private String toCsv() {
+        StringBuilder builder = new StringBuilder(CSV_HEADER).append('\n');
+        sortByTotal(types).forEach(entry -> entry.getValue().appendCsv(builder, "type", getName(entry.getKey())));
+        sortByTotal(outcomes).forEach(entry -> entry.getValue().appendCsv(builder, "outcome", entry.getKey().toString()));
+        delays.appendCsv(builder, "delays", "tick");
+        return builder.toString();
+    }
+
+    public static String getName(OutcomeType type) {
+        return String.valueOf(LuckyBlockMod.OUTCOME_TYPES.getId(type));
+    }
+
+    /**
+     * The outcomes running on a thread, innermost last, with what they have done so far. Each frame is one index into the arrays,
+     * which only grow when outcomes nest deeper than they ever did before.
+     */
+    private static final class Frames {
+        private static final int INITIAL_DEPTH = 16;
+        private OutcomeType[] types = new OutcomeType[INITIAL_DEPTH];
+        private Identifier[] ids = new Identifier[INITIAL_DEPTH];
+        private Outcome.Context[] contexts = new Outcome.Context[INITIAL_DEPTH];
+        private Vec3d[] shapeSizes = new Vec3d[INITIAL_DEPTH];
+        private long[] starts = new long[INITIAL_DEPTH];
+        private int[] blocks = new int[INITIAL_DEPTH];
+        private int[] entities = new int[INITIAL_DEPTH];
+        private int[] packets = new int[INITIAL_DEPTH];
+        private int depth;
+
+        private int push(OutcomeType type, @Nullable Identifier id, Outcome.Context context, long start) {
+            if (depth == starts.length) {
+                int capacity = depth * 2;
+                types = Arrays.copyOf(types, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                contexts = Arrays.copyOf(contexts, capacity);
+                shapeSizes = Arrays.copyOf(shapeSizes, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                blocks = Arrays.copyOf(blocks, capacity);
+                entities = Arrays.copyOf(entities, capacity);
+                packets = Arrays.copyOf(packets, capacity);
+            }
+
+            types[depth] = type;
+            ids[depth] = id;
+            contexts[depth] = context;
+            shapeSizes[depth] = null;
+            starts[depth] = start;
+            blocks[depth] = 0;
+            entities[depth] = 0;
+            packets[depth] = 0;
+            return depth++;
+        }
+
+        /**
+         * Drops the frame and every frame above it, clearing their references so finished contexts can be collected.
+         */
+        private void pop(int frame) {
+            for (int i = frame; i < depth; ++i) {
+                types[i] = null;
+                ids[i] = null;
+                contexts[i] = null;
+                shapeSizes[i] = null;
+            }
+            depth = frame;
+        }
+
+        /**
+         * Keeps the largest size by volume.
+         */
+        private void addShapeSize(int frame, @Nullable Vec3d size) {
+            Vec3d shapeSize = shapeSizes[frame];
+            if (size != null && (shapeSize == null || Math.abs(size.x * size.y * size.z) > Math.abs(shapeSize.x * shapeSize.y * shapeSize.z)))
+                shapeSizes[frame] = size;
+        }
+    }
+
+    public static final class Stats {
+        private final LongAdder runs = new LongAdder();
+        private final LatencyHistogram execution = new LatencyHistogram();
+        private final LatencyHistogram parse = new LatencyHistogram();
+        private final LongAdder blocks = new LongAdder();
+        private final LongAdder entities = new LongAdder();
+        private final LongAdder packets = new LongAdder();
+
+        private void record(long nanos, int blocks, int entities, int packets) {
+            runs.increment();
+            execution.record(nanos);
+            this.blocks.add(blocks);
+            this.entities.add(entities);
+            this.packets.add(packets);
+        }
+
+        public long getRuns() {
+            return runs.sum();
+        }
+
+        public LatencyHistogram getExecution() {
+            return execution;
+        }
+
+        public LatencyHistogram getParse() {
+            return parse;
+        }
+
+        public long getBlocks() {
+            return blocks.sum();
+        }
+
+        public long getEntities() {
+            return entities.sum();
+        }
+
+        public long getPackets() {
+            return packets.sum();
+        }
+
+        private void reset() {
+            runs.reset();
+            execution.reset();
+            parse.reset();
+            blocks.reset();
+            entities.reset();
+            packets.reset();
+        }
+
+        private JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("runs", getRuns());
+            json.addProperty("total_ms", execution.getTotal() / 1e6d);
+            json.addProperty("mean_us", execution.getMean() / 1e3d);
+            json.addProperty("p50_us", execution.getPercentile(50d) / 1e3d);
+            json.addProperty("p90_us", execution.getPercentile(90d) / 1e3d);
+            json.addProperty("p99_us", execution.getPercentile(99d) / 1e3d);
+            json.addProperty("max_us", execution.getMax() / 1e3d);
+            json.addProperty("parses", parse.getCount());
+            json.addProperty("parse_p50_us", parse.getPercentile(50d) / 1e3d);
+            json.addProperty("parse_p99_us", parse.getPercentile(99d) / 1e3d);
+            json.addProperty("blocks", getBlocks());
+            json.addProperty("entities", getEntities());
+            json.addProperty("packets", getPackets());
+            return json;
+        }
+
+        private void appendCsv(StringBuilder builder, String scope, String key) {
+            builder.append(scope).append(',').append(key).append(',').append(getRuns()).append(',')
+                    .append(execution.getTotal() / 1e6d).append(',').append(execution.getMean() / 1e3d).append(',')
+                    .append(execution.getPercentile(50d) / 1e3d).append(',').append(execution.getPercentile(90d) / 1e3d).append(',')
+                    .append(execution.getPercentile(99d) / 1e3d).append(',').append(execution.getMax() / 1e3d).append(',')
+                    .append(parse.getCount()).append(',').append(parse.getPercentile(50d) / 1e3d).append(',').append(parse.getPercentile(99d) / 1e3d).append(',')
+                    .append(getBlocks()).append(',').append(getEntities()).append(',').append(getPackets()).append('\n');
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package dev.creoii.luckyblock.outcome;
+
+import com.google.gson.JsonObject;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.random.Random;
+
+import java.util.Map;
+
+/**
+ * Weighted selection table for a container's random outcomes, sampled with Vose's alias method.
+ * An alias table is built lazily the first time a block luck value is sampled and kept until the next reload,
+ * after which a lookup is O(1) and allocation free.
+ */
+public final class OutcomeTable {
+    public static final int MIN_LUCK = -100;
+    public static final int MAX_LUCK = 100;
+    private final Identifier[] ids;
+    private final CompiledOutcome[] outcomes;
+    private final int[] luck;
+    private final double[] chance;
+    private final int lowest;
+    private final int highest;
+    private final Row[] rows = new Row[MAX_LUCK - MIN_LUCK + 1];
+
+    private OutcomeTable(Identifier[] ids, CompiledOutcome[] outcomes, int[] luck, double[] chance) {
+        this.ids = ids;
+        this.outcomes = outcomes;
+        this.luck = luck;
+        this.chance = chance;
+
+        int lowest = 0, highest = 0;
+        for (int outcomeLuck : luck) {
+            if (outcomeLuck < lowest)
+                lowest = outcomeLuck;
+            if (outcomeLuck > highest)
+                highest = outcomeLuck;
+        }
+        this.lowest = lowest;
+        this.highest = highest;
+    }
+
+    public static OutcomeTable create(Map<Identifier, CompiledOutcome> randomOutcomes) {
+        int size = randomOutcomes.size();
+        Identifier[] ids = new Identifier[size];
+        CompiledOutcome[] outcomes = new CompiledOutcome[size];
+        int[] luck = new int[size];
+        double[] chance = new double[size];
+
+        int i = 0;
+        for (Map.Entry<Identifier, CompiledOutcome> entry : randomOutcomes.entrySet()) {
+            ids[i] = entry.getKey();
+            outcomes[i] = entry.getValue();
+            luck[i] = readLuck(entry.getValue().getJson());
+            chance[i] = readChance(entry.getValue().getJson());
+            ++i;
+        }
+        return new OutcomeTable(ids, outcomes, luck, chance);
+    }
+
+    /**
+     * Builds a table over bare luck and chance values, without outcomes to run.
+     */
+    static OutcomeTable of(int[] luck, double[] chance) {
+        return new OutcomeTable(new Identifier[luck.length], new CompiledOutcome[luck.length], luck, chance);
+    }
+
+    private static int readLuck(JsonObject outcome) {
+        try {
+            return outcome.getAsJsonPrimitive("luck").getAsInt();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static double readChance(JsonObject outcome) {
+        double outcomeChance;
+        try {
+            outcomeChance = outcome.getAsJsonPrimitive("chance").getAsDouble();
+        } catch (Exception e) {
+            outcomeChance = 1d;
+        }
+        return outcomeChance > 0d ? outcomeChance : 1d;
+    }
+
+    /**
+     * Builds the alias table of a block luck value on first use. Rows are immutable, so two threads building the same row at once is harmless.
+     */
+    private Row getRow(int blockLuck) {
+        int index = blockLuck - MIN_LUCK;
+        Row row = rows[index];
+        if (row == null) {
+            double[] weights = new double[ids.length];
+            computeWeights(blockLuck, weights);
+            double[] probability = new double[ids.length];
+            int[] alias = new int[ids.length];
+            buildAliasTable(weights, probability, alias);
+            row = new Row(probability, alias);
+            rows[index] = row;
+        }
+        return row;
+    }
+
+    private void computeWeights(int blockLuck, double[] weights) {
+        int range = highest - lowest + 1;
+        double base = 1d / (1d - Math.abs(blockLuck) * .77d / 100d);
+        for (int i = 0; i < weights.length; ++i) {
+            int outcomeLuck = luck[i] - lowest + 1;
+            weights[i] = chance[i] * Math.pow(base, blockLuck >= 0 ? outcomeLuck : range + 1 - outcomeLuck) * 100;
+        }
+    }
+
+    private static void buildAliasTable(double[] weights, double[] probability, int[] alias) {
+        int n = weights.length;
+        double total = 0d;
+        for (double weight : weights) {
+            total += weight;
+        }
+
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallSize = 0, largeSize = 0;
+        for (int i = 0; i < n; ++i) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1d) {
+                small[smallSize++] = i;
+            } else large[largeSize++] = i;
+        }
+
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1d;
+            if (scaled[more] < 1d) {
+                small[smallSize++] = more;
+            } else large[largeSize++] = more;
+        }
+
+        while (largeSize > 0) {
+            int index = large[--largeSize];
+            probability[index] = 1d;
+            alias[index] = index;
+        }
+        while (smallSize > 0) {
+            int index = small[--smallSize];
+            probability[index] = 1d;
+            alias[index] = index;
+        }
+    }
+
+    /**
+     * @param blockLuck the luck of the broken block, from -100 to 100
+     * @return the index of the selected outcome
+     */
+    public int sample(Random random, int blockLuck) {
+        Row row = getRow(Math.clamp(blockLuck, MIN_LUCK, MAX_LUCK));
+        int column = random.nextInt(ids.length);
+        return random.nextDouble() < row.probability()[column] ? column : row.alias()[column];
+    }
+
+    /**
+     * @return the chance of the outcome being sampled at the block luck, as encoded in its alias table
+     */
+    double getProbability(int index, int blockLuck) {
+        Row row = getRow(Math.clamp(blockLuck, MIN_LUCK, MAX_LUCK));
+        double probability = row.probability()[index];
+        for (int column = 0; column < ids.length; ++column) {
+            if (column != index && row.alias()[column] == index)
+                probability += 1d - row.probability()[column];
+        }
+        return probability / ids.length;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    public Identifier getId(int index) {
+        return ids[index];
+    }
+
+    public CompiledOutcome getOutcome(int index) {
+        return outcomes[index];
+    }
+
+    public int getLuck(int index) {
+        return luck[index];
+    }
+
+    public double getChance(int index) {
+        return chance[index];
+    }
+
+    private record Row(double[] probability, int[] alias) {}
+}
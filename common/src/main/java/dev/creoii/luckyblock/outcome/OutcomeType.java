@@ -5,21 +5,32 @@ import dev.creoii.luckyblock.LuckyBlockMod;
 import net.minecraft.registry.Registry;
 import net.minecraft.util.Identifier;
 
-public record OutcomeType(MapCodec<? extends Outcome> codec) {
+/**
+ * @param priority the order delayed outcomes that are due on the same tick run in, higher runs first.
+ *                 Expensive world edits have a low priority, so they are the first to be deferred when the tick budget runs out.
+ */
+public record OutcomeType(MapCodec<? extends Outcome> codec, int priority) {
+    public static final int DEFAULT_PRIORITY = 0;
+    public static final int LOW_PRIORITY = -10;
+    public static final int HIGH_PRIORITY = 10;
     public static final OutcomeType NONE = new OutcomeType(NoneOutcome.CODEC);
     public static final OutcomeType RANDOM = new OutcomeType(RandomOutcome.CODEC);
     public static final OutcomeType GROUP = new OutcomeType(GroupOutcome.CODEC);
-    public static final OutcomeType MESSAGE = new OutcomeType(MessageOutcome.CODEC);
+    public static final OutcomeType MESSAGE = new OutcomeType(MessageOutcome.CODEC, HIGH_PRIORITY);
     public static final OutcomeType COMMAND = new OutcomeType(CommandOutcome.CODEC);
     public static final OutcomeType BLOCK = new OutcomeType(BlockOutcome.CODEC);
     public static final OutcomeType ITEM = new OutcomeType(ItemOutcome.CODEC);
     public static final OutcomeType ENTITY = new OutcomeType(EntityOutcome.CODEC);
-    public static final OutcomeType FEATURE = new OutcomeType(FeatureOutcome.CODEC);
-    public static final OutcomeType STRUCTURE = new OutcomeType(StructureOutcome.CODEC);
-    public static final OutcomeType PARTICLE = new OutcomeType(ParticleOutcome.CODEC);
-    public static final OutcomeType SOUND = new OutcomeType(SoundOutcome.CODEC);
+    public static final OutcomeType FEATURE = new OutcomeType(FeatureOutcome.CODEC, LOW_PRIORITY);
+    public static final OutcomeType STRUCTURE = new OutcomeType(StructureOutcome.CODEC, LOW_PRIORITY);
+    public static final OutcomeType PARTICLE = new OutcomeType(ParticleOutcome.CODEC, HIGH_PRIORITY);
+    public static final OutcomeType SOUND = new OutcomeType(SoundOutcome.CODEC, HIGH_PRIORITY);
     public static final OutcomeType EFFECT = new OutcomeType(EffectOutcome.CODEC);
-    public static final OutcomeType EXPLOSION = new OutcomeType(ExplosionOutcome.CODEC);
+    public static final OutcomeType EXPLOSION = new OutcomeType(ExplosionOutcome.CODEC, LOW_PRIORITY);
+
+    public OutcomeType(MapCodec<? extends Outcome> codec) {
+        this(codec, DEFAULT_PRIORITY);
+    }
 
     public static void init() {
         registerOutcomeType(new Identifier(LuckyBlockMod.NAMESPACE, "none"), NONE);
@@ -0,0 +1,123 @@
+package dev.creoii.luckyblock.outcome;
+
+import dev.creoii.luckyblock.LuckyBlockMod;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the last {@value #CAPACITY} outcomes and delay batches that took longer than the threshold, along with where they ran
+ * and what they did, so outcomes with accidentally huge sizes can be found without attaching a profiler.
+ * The threshold starts at {@code lucky.watchdogThreshold} milliseconds, 50 by default.
+ */
+public final class OutcomeWatchdog {
+    private static final int CAPACITY = 64;
+    private final Sample[] samples = new Sample[CAPACITY];
+    private int next;
+    private int size;
+    private long total;
+    private volatile long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Integer.getInteger("lucky.watchdogThreshold", 50));
+
+    public boolean exceeds(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    public int getThreshold() {
+        return (int) TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    public void setThreshold(int millis) {
+        thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+    }
+
+    void sample(OutcomeType type, @Nullable Identifier id, Outcome.Context context, long nanos, @Nullable Vec3d shapeSize, int blocks, int entities, int packets) {
+        add(new OutcomeSample(System.currentTimeMillis(), nanos, OutcomeMetrics.getName(type), id, context.world().getRegistryKey().getValue(), context.pos(),
+                context.player() != null ? context.player().getName().getString() : null, shapeSize, blocks, entities, packets));
+    }
+
+    void sampleBatch(long nanos, int ran, int waiting) {
+        add(new BatchSample(System.currentTimeMillis(), nanos, ran, waiting));
+    }
+
+    private synchronized void add(Sample sample) {
+        samples[next] = sample;
+        next = (next + 1) % CAPACITY;
+        size = Math.min(size + 1, CAPACITY);
+        ++total;
+        LuckyBlockMod.LOGGER.warn("Slow outcome: {}", sample.describe());
+    }
+
+    /**
+     * @return the samples in the buffer, newest first
+     */
+    public synchronized List<Sample> getSamples() {
+        List<Sample> list = new ArrayList<>(size);
+        for (int i = 1; i <= size; ++i) {
+            list.add(samples[Math.floorMod(next - i, CAPACITY)]);
+        }
+        return list;
+    }
+
+    /**
+     * @return the number of samples taken since the last clear, including the ones that fell out of the buffer
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(samples, null);
+        next = 0;
+        size = 0;
+        total = 0L;
+    }
+
+    public sealed interface Sample permits OutcomeSample, BatchSample {
+        /**
+         * @return when the sample was taken, in epoch milliseconds
+         */
+        long time();
+
+        long nanos();
+
+        String describe();
+    }
+
+    /**
+     * @param id the outcome file the outcome was decoded from, or null if it is not known
+     * @param shapeSize the largest shape size the outcome resolved, or null if it has no shape
+     */
+    public record OutcomeSample(long time, long nanos, String type, @Nullable Identifier id, Identifier dimension, BlockPos pos, @Nullable String player,
+                                @Nullable Vec3d shapeSize, int blocks, int entities, int packets) implements Sample {
+        @Override
+        public String describe() {
+            StringBuilder builder = new StringBuilder(type);
+            if (id != null)
+                builder.append(' ').append(id);
+            builder.append(String.format(Locale.ROOT, " took %.2fms at %s in %s", nanos / 1e6d, pos.toShortString(), dimension));
+            if (player != null)
+                builder.append(" for ").append(player);
+            if (shapeSize != null)
+                builder.append(String.format(Locale.ROOT, ", shape size %.1f %.1f %.1f", shapeSize.x, shapeSize.y, shapeSize.z));
+            return builder.append(", ").append(blocks).append(" blocks, ").append(entities).append(" entities, ").append(packets).append(" packets").toString();
+        }
+    }
+
+    /**
+     * @param ran the number of delayed outcomes that ran in the batch
+     * @param waiting the number of due outcomes left for the next tick
+     */
+    public record BatchSample(long time, long nanos, int ran, int waiting) implements Sample {
+        @Override
+        public String describe() {
+            return String.format(Locale.ROOT, "delay batch took %.2fms, ran %d delayed outcomes, %d left waiting", nanos / 1e6d, ran, waiting);
+        }
+    }
+}
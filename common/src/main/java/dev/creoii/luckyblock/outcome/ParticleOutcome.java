@@ -2,11 +2,11 @@ package dev.creoii.luckyblock.outcome;
 
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.creoii.luckyblock.LuckyBlockMod;
 import dev.creoii.luckyblock.util.LuckyBlockCodecs;
 import dev.creoii.luckyblock.util.vec.VecProvider;
 import net.minecraft.particle.ParticleEffect;
 import net.minecraft.particle.ParticleTypes;
-import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.floatprovider.FloatProvider;
@@ -40,26 +40,38 @@ public class ParticleOutcome extends Outcome {
         this.speed = speed;
     }
 
+    /**
+     * Server side particles are handed to the {@link EffectCoalescer}, which sends them at the end of the tick.
+     */
     @Override
     public void run(Context context) {
         Vec3d pos = getPos().isPresent() ? getPos().get().getVec(context) : context.pos().toCenterPos();
-        float speed = this.speed.map(floatProvider -> floatProvider.get(context.world().getRandom())).orElse(0f);
+        float speed = this.speed.map(floatProvider -> floatProvider.get(context.random())).orElse(0f);
 
         Vec3d velocity = Vec3d.ZERO;
         if (this.velocity.isPresent()) {
             velocity = this.velocity.get().getVec(context);
         }
 
-        for (ServerPlayerEntity serverPlayer : context.world().getServer().getPlayerManager().getPlayerList()) {
-            for (int i = 0; i < count.get(context.world().getRandom()); ++i) {
-                ((ServerWorld) context.world()).spawnParticles(serverPlayer, particle, false, pos.x, pos.y, pos.z, 1, velocity.x, velocity.y, velocity.z, speed);
+        if (!(context.world() instanceof ServerWorld serverWorld)) {
+            // worlds without a server, such as the replay harness, only get the particles added locally
+            for (int i = 0; i < count.get(context.random()); ++i) {
+                context.world().addParticle(particle, pos.x, pos.y, pos.z, velocity.x, velocity.y, velocity.z);
+            }
+            return;
+        }
+
+        int count = this.count.get(context.random());
+        if (!shouldReinit()) {
+            LuckyBlockMod.EFFECT_COALESCER.addParticles(serverWorld, particle, pos, velocity, speed, count);
+            return;
+        }
 
-                if (shouldReinit()) {
-                    pos = getPos().isPresent() ? getPos().get().getVec(context) : context.pos().toCenterPos();
-                    if (this.velocity.isPresent()) {
-                        velocity = this.velocity.get().getVec(context);
-                    }
-                }
+        for (int i = 0; i < count; ++i) {
+            LuckyBlockMod.EFFECT_COALESCER.addParticles(serverWorld, particle, pos, velocity, speed, 1);
+            pos = getPos().isPresent() ? getPos().get().getVec(context) : context.pos().toCenterPos();
+            if (this.velocity.isPresent()) {
+                velocity = this.velocity.get().getVec(context);
             }
         }
     }
@@ -23,6 +23,6 @@ public class RandomOutcome extends Outcome {
 
     @Override
     public void run(Context context) {
-        outcomes.get(context.world().getRandom().nextInt(outcomes.size())).runOutcome(context);
+        outcomes.get(context.random().nextInt(outcomes.size())).runOutcome(context);
     }
 }
@@ -2,16 +2,16 @@ package dev.creoii.luckyblock.outcome;
 
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import dev.creoii.luckyblock.LuckyBlockMod;
 import dev.creoii.luckyblock.util.LuckyBlockCodecs;
 import dev.creoii.luckyblock.util.vec.VecProvider;
-import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.sound.SoundEvent;
-import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.floatprovider.FloatProvider;
+import org.apache.commons.lang3.mutable.MutableInt;
 
-import java.util.List;
 import java.util.Optional;
 
 public class SoundOutcome extends Outcome {
@@ -39,29 +39,23 @@ public class SoundOutcome extends Outcome {
     @Override
     public void run(Context context) {
         Vec3d pos = getPos().isPresent() ? getPos().get().getVec(context) : context.pos().toCenterPos();
-        float volume = this.volume.get(context.world().getRandom());
-        float pitch = this.pitch.get(context.world().getRandom());
+        float volume = this.volume.get(context.random());
+        float pitch = this.pitch.get(context.random());
 
-        double d = MathHelper.square(soundEvent.getDistanceToTravel(volume));
-
-        List<ServerPlayerEntity> players = context.world().getServer().getPlayerManager().getPlayerList().stream().filter(serverPlayer -> {
-            return pos.squaredDistanceTo(serverPlayer.getPos()) <= d;
-        }).toList();
+        if (!(context.world() instanceof ServerWorld serverWorld)) {
+            // worlds without a server, such as the replay harness, only get the sound played locally
+            context.world().playSound(null, pos.x, pos.y, pos.z, soundEvent, SoundCategory.NEUTRAL, volume, pitch);
+            return;
+        }
 
-        for (ServerPlayerEntity serverPlayer : players) {
-            float j;
-            while (true) {
-                double e = pos.x - serverPlayer.getX();
-                double f = pos.y - serverPlayer.getY();
-                double g = pos.z - serverPlayer.getZ();
-                double h = e * e + f * f + g * g;
-                j = volume;
-                if (!(h > d)) {
-                    break;
-                }
-            }
+        if (!LuckyBlockMod.EFFECT_COALESCER.claimSound(serverWorld, soundEvent, pos))
+            return;
 
-            serverPlayer.playSoundToPlayer(soundEvent, SoundCategory.NEUTRAL, j, pitch);
-        }
+        MutableInt players = new MutableInt();
+        LuckyBlockMod.PLAYER_INDEX.forEachPlayerWithin(serverWorld, pos, soundEvent.getDistanceToTravel(volume), serverPlayer -> {
+            serverPlayer.playSoundToPlayer(soundEvent, SoundCategory.NEUTRAL, volume, pitch);
+            players.increment();
+        });
+        LuckyBlockMod.OUTCOME_METRICS.addPackets(players.intValue());
     }
 }
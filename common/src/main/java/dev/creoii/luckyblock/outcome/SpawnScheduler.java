@@ -0,0 +1,70 @@
+package dev.creoii.luckyblock.outcome;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.profiler.Profiler;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Spreads the spawns of outcomes with {@code spread} enabled over several ticks.
+ * Every tick, at most {@code lucky.spawnsPerTick} spawns run, shared by all spreading outcomes one spawn at a time,
+ * so a large outcome cannot hold back the ones queued after it.
+ * <p>
+ * Spawns that are still queued when the server stops are dropped.
+ */
+public final class SpawnScheduler {
+    private final int spawnsPerTick = Integer.getInteger("lucky.spawnsPerTick", 32);
+    private final Deque<Job> jobs = new ArrayDeque<>();
+
+    /**
+     * @param spawner called with every index below {@code count}, in order
+     */
+    public void schedule(int count, Spawner spawner) {
+        if (count > 0)
+            jobs.add(new Job(spawner, count));
+    }
+
+    public void tick(MinecraftServer server) {
+        if (jobs.isEmpty() || !server.getTickManager().shouldTick())
+            return;
+
+        Profiler profiler = server.getProfiler();
+        profiler.push("luckySpawns");
+        for (int spawned = 0; spawned < spawnsPerTick && !jobs.isEmpty(); ++spawned) {
+            Job job = jobs.poll();
+            job.spawner.spawn(job.next++);
+            if (job.next < job.count)
+                jobs.add(job);
+        }
+        profiler.pop();
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Job job : jobs) {
+            depth += job.count - job.next;
+        }
+        return depth;
+    }
+
+    public void clear() {
+        jobs.clear();
+    }
+
+    @FunctionalInterface
+    public interface Spawner {
+        void spawn(int index);
+    }
+
+    private static final class Job {
+        private final Spawner spawner;
+        private final int count;
+        private int next;
+
+        private Job(Spawner spawner, int count) {
+            this.spawner = spawner;
+            this.count = count;
+        }
+    }
+}
@@ -57,7 +57,7 @@ public class StructureOutcome extends Outcome {
                     LuckyBlockMod.LOGGER.error("Failed to place template '{}'", structureId);
                 }
             } else if (pool.isPresent()) {
-                if (!StructurePoolBasedGenerator.generate(serverWorld, pool.get(), EMPTY_TARGET, depth.orElse(LuckyBlockCodecs.ONE).get(context.world().getRandom()), pos, false)) {
+                if (!StructurePoolBasedGenerator.generate(serverWorld, pool.get(), EMPTY_TARGET, depth.orElse(LuckyBlockCodecs.ONE).get(context.random()), pos, false)) {
                     LuckyBlockMod.LOGGER.error("Failed to generate jigsaw '{}'", structureId);
                 }
             } else {
@@ -69,7 +69,7 @@ public class StructureOutcome extends Outcome {
                 ChunkGenerator chunkGenerator = serverWorld.getChunkManager().getChunkGenerator();
                 Chunk chunk = serverWorld.getChunk(pos);
                 StructureStart start = structure.createStructureStart(dynamicRegistryManager, chunkGenerator, chunkGenerator.getBiomeSource(), serverWorld.getChunkManager().getNoiseConfig(), serverWorld.getStructureTemplateManager(), serverWorld.getSeed(), chunk.getPos(), 0, serverWorld, biome -> true);
-                start.place(serverWorld, serverWorld.getStructureAccessor(), chunkGenerator, serverWorld.getRandom(), start.getBoundingBox(), chunk.getPos());
+                start.place(serverWorld, serverWorld.getStructureAccessor(), chunkGenerator, context.random(), start.getBoundingBox(), chunk.getPos());
             }
         }
     }
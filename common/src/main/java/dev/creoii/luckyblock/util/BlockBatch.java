@@ -0,0 +1,104 @@
+package dev.creoii.luckyblock.util;
+
+import dev.creoii.luckyblock.LuckyBlockMod;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.shorts.ShortOpenHashSet;
+import it.unimi.dsi.fastutil.shorts.ShortSet;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.network.packet.s2c.play.ChunkDeltaUpdateS2CPacket;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.List;
+
+/**
+ * Places many blocks at once. States are written without notifying listeners or neighbors,
+ * every changed chunk section is sent to its watchers as a single {@link ChunkDeltaUpdateS2CPacket} and
+ * neighbor updates run once the whole batch is placed, only for the blocks on the edge of the batch.
+ * <p>
+ * Shape updates still run as every block is placed, so fences, panes and redstone connect to each other and to the blocks around the batch.
+ * The blocks just outside the batch are sent to their watchers once it is flushed, since the shape updates may have changed them.
+ * <p>
+ * Light checks are queued by the chunk as usual and processed together by the light engine after the tick.
+ */
+public class BlockBatch {
+    /**
+     * Neither {@link Block#NOTIFY_NEIGHBORS} nor {@link Block#NOTIFY_LISTENERS}, but without {@link Block#FORCE_STATE} so shape updates run.
+     */
+    private static final int FLAGS = 0;
+    private final World world;
+    private final boolean updateNeighbors;
+    private final Long2ObjectMap<ShortSet> sections = new Long2ObjectOpenHashMap<>();
+    private final LongSet placed = new LongOpenHashSet();
+
+    public BlockBatch(World world, boolean updateNeighbors) {
+        this.world = world;
+        this.updateNeighbors = updateNeighbors;
+    }
+
+    /**
+     * @return whether the block was changed
+     */
+    public boolean setBlockState(BlockPos pos, BlockState state) {
+        if (!(world instanceof ServerWorld)) {
+            if (!world.setBlockState(pos, state))
+                return false;
+
+            LuckyBlockMod.OUTCOME_METRICS.addBlocks(1);
+            return true;
+        }
+
+        if (!world.setBlockState(pos, state, FLAGS))
+            return false;
+
+        LuckyBlockMod.OUTCOME_METRICS.addBlocks(1);
+        sections.computeIfAbsent(ChunkSectionPos.toLong(pos), l -> new ShortOpenHashSet()).add(ChunkSectionPos.packLocal(pos));
+        placed.add(pos.asLong());
+        return true;
+    }
+
+    public void flush() {
+        if (!(world instanceof ServerWorld serverWorld))
+            return;
+
+        for (Long2ObjectMap.Entry<ShortSet> entry : sections.long2ObjectEntrySet()) {
+            ChunkSectionPos sectionPos = ChunkSectionPos.from(entry.getLongKey());
+            WorldChunk chunk = serverWorld.getChunk(sectionPos.getSectionX(), sectionPos.getSectionZ());
+            ChunkDeltaUpdateS2CPacket packet = new ChunkDeltaUpdateS2CPacket(sectionPos, entry.getValue(), chunk.getSection(chunk.sectionCoordToIndex(sectionPos.getSectionY())));
+            List<ServerPlayerEntity> players = serverWorld.getChunkManager().threadedAnvilChunkStorage.getPlayersWatchingChunk(sectionPos.toChunkPos(), false);
+            for (ServerPlayerEntity player : players) {
+                player.networkHandler.sendPacket(packet);
+            }
+            LuckyBlockMod.OUTCOME_METRICS.addPackets(players.size());
+        }
+
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        BlockPos.Mutable neighbor = new BlockPos.Mutable();
+        LongIterator iterator = placed.iterator();
+        while (iterator.hasNext()) {
+            pos.set(iterator.nextLong());
+            boolean edge = false;
+            for (Direction direction : Direction.values()) {
+                if (!placed.contains(neighbor.set(pos, direction).asLong())) {
+                    serverWorld.getChunkManager().markForUpdate(neighbor);
+                    edge = true;
+                }
+            }
+            if (edge && updateNeighbors)
+                world.updateNeighbors(pos.toImmutable(), world.getBlockState(pos).getBlock());
+        }
+
+        sections.clear();
+        placed.clear();
+    }
+}
@@ -1,19 +1,21 @@
 package dev.creoii.luckyblock.util;
 
-import com.ezylang.evalex.Expression;
 import com.google.common.collect.ImmutableMap;
 import dev.creoii.luckyblock.outcome.Outcome;
+import dev.creoii.luckyblock.util.template.StringTemplate;
 import net.minecraft.util.math.Direction;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class FunctionUtils {
-    private static final Pattern PARAM_PATTERN = Pattern.compile("\\{(\\w+)}");
-    private static final Pattern MATH_PATTERN = Pattern.compile("-?\\d+(\\.\\d+)?([*/+-]\\d+(\\.\\d+)?)+");
+    /**
+     * Strings rendered with parameters baked in can differ on every break, so the cache is emptied once it grows past this.
+     */
+    private static final int MAX_TEMPLATES = 1024;
+    private static final Map<String, StringTemplate> TEMPLATES = new ConcurrentHashMap<>();
     private static final List<String> COLORS = List.of("brown", "red", "orange", "yellow", "lime", "green", "cyan", "blue", "light_blue", "pink", "magenta", "purple", "black", "gray", "light_gray", "white");
     private static final List<String> WOODS = List.of("oak", "spruce", "birch", "jungle", "dark_oak", "acacia", "mangrove", "cherry");
     public static final Map<String, Function<Outcome.Context, String>> STRING_PARAMS = new ImmutableMap.Builder<String, Function<Outcome.Context, String>>()
@@ -21,13 +23,13 @@ public class FunctionUtils {
             .put("playerUUID", context -> context.player() == null ? "" : String.valueOf(context.player().getUuidAsString()))
             .put("playerDirection", context -> context.player() == null ? "" : String.valueOf(context.player().getFacing().asString()))
             .put("playerHorizontalDirection", context -> context.player() == null ? "" : String.valueOf(context.player().getHorizontalFacing().asString()))
-            .put("randomDirection", context -> String.valueOf(Direction.random(context.world().getRandom())))
-            .put("randomHorizontalDirection", context -> String.valueOf(Direction.Type.HORIZONTAL.random(context.world().getRandom())))
-            .put("randomDyeColor", context -> String.valueOf(COLORS.get(context.world().getRandom().nextInt(COLORS.size()))))
-            .put("randomDye", context -> String.valueOf(COLORS.get(context.world().getRandom().nextInt(COLORS.size()))))
-            .put("randomWoodType", context -> String.valueOf(WOODS.get(context.world().getRandom().nextInt(WOODS.size()))))
-            .put("randomWood", context -> String.valueOf(WOODS.get(context.world().getRandom().nextInt(WOODS.size()))))
-            .put("randomAxis", context -> String.valueOf(Direction.Axis.pickRandomAxis(context.world().getRandom())))
+            .put("randomDirection", context -> String.valueOf(Direction.random(context.random())))
+            .put("randomHorizontalDirection", context -> String.valueOf(Direction.Type.HORIZONTAL.random(context.random())))
+            .put("randomDyeColor", context -> String.valueOf(COLORS.get(context.random().nextInt(COLORS.size()))))
+            .put("randomDye", context -> String.valueOf(COLORS.get(context.random().nextInt(COLORS.size()))))
+            .put("randomWoodType", context -> String.valueOf(WOODS.get(context.random().nextInt(WOODS.size()))))
+            .put("randomWood", context -> String.valueOf(WOODS.get(context.random().nextInt(WOODS.size()))))
+            .put("randomAxis", context -> String.valueOf(Direction.Axis.pickRandomAxis(context.random())))
             .build();
     public static final Map<String, Function<Outcome.Context, Integer>> INT_PARAMS = new ImmutableMap.Builder<String, Function<Outcome.Context, Integer>>()
             .put("playerPosX", context -> context.player() == null ? context.pos().getX() : context.player().getBlockX())
@@ -36,7 +38,7 @@ public class FunctionUtils {
             .put("blockPosX", context -> context.pos().getX())
             .put("blockPosY", context -> context.pos().getY())
             .put("blockPosZ", context -> context.pos().getZ())
-            .put("randomRGBColor", context -> context.world().getRandom().nextInt(16777215))
+            .put("randomRGBColor", context -> context.random().nextInt(16777215))
             .build();
     public static final Map<String, Function<Outcome.Context, Double>> DOUBLE_PARAMS = new ImmutableMap.Builder<String, Function<Outcome.Context, Double>>()
             .put("playerVecX", context -> context.player() == null ? context.pos().toCenterPos().getX() : context.player().getX())
@@ -59,49 +61,40 @@ public class FunctionUtils {
             .build();
 
     /**
-     * @param string a json object in string format
-     * @return the string with all parameters and functions replaced with their values, based on the context
+     * @throws IllegalArgumentException if no parameter with the given name exists
      */
-    public static String parseString(String string, Outcome.Context context) {
-        StringBuilder result = new StringBuilder();
-        Matcher matcher = PARAM_PATTERN.matcher(string);
-
-        while (matcher.find()) {
-            String param = matcher.group(1);
-
-            if (FunctionUtils.STRING_PARAMS.containsKey(param)) {
-                String replacement = FunctionUtils.STRING_PARAMS.get(param).apply(context);
-                matcher.appendReplacement(result, replacement);
-            } else if (FunctionUtils.DOUBLE_PARAMS.containsKey(param)) {
-                Number numberValue = FunctionUtils.DOUBLE_PARAMS.get(param).apply(context);
-                matcher.appendReplacement(result, String.valueOf(numberValue));
-            } else if (FunctionUtils.INT_PARAMS.containsKey(param)) {
-                Number numberValue = FunctionUtils.INT_PARAMS.get(param).apply(context);
-                matcher.appendReplacement(result, String.valueOf(numberValue));
-            } else throw new IllegalArgumentException("Error parsing param '" + param + "'");
-        }
+    public static Function<Outcome.Context, ?> getParam(String name) {
+        if (STRING_PARAMS.containsKey(name)) {
+            return STRING_PARAMS.get(name);
+        } else if (DOUBLE_PARAMS.containsKey(name)) {
+            return DOUBLE_PARAMS.get(name);
+        } else if (INT_PARAMS.containsKey(name)) {
+            return INT_PARAMS.get(name);
+        } else throw new IllegalArgumentException("Error parsing param '" + name + "'");
+    }
 
-        String parsed = matcher.appendTail(result).toString();
-        return replaceIgnoreProperties(parsed);
+    public static boolean isNumericParam(String name) {
+        return !STRING_PARAMS.containsKey(name) && (DOUBLE_PARAMS.containsKey(name) || INT_PARAMS.containsKey(name));
     }
 
-    private static String replaceIgnoreProperties(String string) {
-        String parsed = string.replaceAll("(\"Properties\"\\s*:\\s*\\{[^}]*?)\"([\\-\\d.]+)\"", "$1@@$2@@");
-        parsed = evaluateExpressions(parsed.replaceAll("\"([\\-\\d.]+)\"", "$1"));
-        return parsed.replaceAll("@@([\\-\\d.]+)@@", "\"$1\"");
+    /**
+     * Renders the string through a {@link StringTemplate}, compiled once per distinct string and cached.
+     * Callers that render the same string repeatedly should still keep the compiled template themselves.
+     * @return the string with all parameters and math expressions replaced with their values, based on the context
+     */
+    public static String parseString(String string, Outcome.Context context) {
+        return getTemplate(string).render(context);
     }
 
-    private static String evaluateExpressions(String input) {
-        Matcher matcher = MATH_PATTERN.matcher(input);
+    public static StringTemplate getTemplate(String string) {
+        StringTemplate template = TEMPLATES.get(string);
+        if (template != null)
+            return template;
 
-        StringBuilder result = new StringBuilder();
-        while (matcher.find()) {
-            try {
-                matcher.appendReplacement(result, new Expression(matcher.group()).evaluate().getStringValue());
-            } catch (Exception e) {
-                throw new IllegalArgumentException("Error evaluating math expression: " + matcher.group(), e);
-            }
-        }
-        return matcher.appendTail(result).toString().replaceAll("\"([\\-\\d\\.]+)\"", "$1");
+        template = StringTemplate.compile(string);
+        if (TEMPLATES.size() >= MAX_TEMPLATES)
+            TEMPLATES.clear();
+        TEMPLATES.put(string, template);
+        return template;
     }
 }
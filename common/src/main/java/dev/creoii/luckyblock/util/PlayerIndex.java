@@ -0,0 +1,130 @@
+package dev.creoii.luckyblock.util;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The players of every world, bucketed by the chunk they stand in, so outcomes can find the players around them
+ * without going over every player on the server.
+ * <p>
+ * Buckets are updated once a tick, only for the players that changed chunk, and a world is refreshed early
+ * when players joined or left it since. Queries reach {@link #MARGIN} blocks further than asked and check the
+ * live position of each player, so players that moved within the tick are still found.
+ */
+public final class PlayerIndex {
+    private static final double MARGIN = 16d;
+    private final Map<ServerWorld, WorldIndex> worlds = new Reference2ObjectOpenHashMap<>();
+
+    public void tick(MinecraftServer server) {
+        for (ServerWorld world : server.getWorlds()) {
+            WorldIndex index = worlds.get(world);
+            if (index != null) {
+                index.refresh(world);
+            } else if (!world.getPlayers().isEmpty())
+                worlds.computeIfAbsent(world, w -> new WorldIndex()).refresh(world);
+        }
+    }
+
+    /**
+     * Visits every player of the world within {@code radius} blocks of the position.
+     */
+    public void forEachPlayerWithin(ServerWorld world, Vec3d pos, double radius, Consumer<ServerPlayerEntity> visitor) {
+        List<ServerPlayerEntity> players = world.getPlayers();
+        if (players.isEmpty())
+            return;
+
+        WorldIndex index = worlds.computeIfAbsent(world, w -> new WorldIndex());
+        if (index.players.size() != players.size())
+            index.refresh(world);
+
+        double squaredRadius = radius * radius;
+        int minX = ChunkSectionPos.getSectionCoord(MathHelper.floor(pos.x - radius - MARGIN));
+        int maxX = ChunkSectionPos.getSectionCoord(MathHelper.floor(pos.x + radius + MARGIN));
+        int minZ = ChunkSectionPos.getSectionCoord(MathHelper.floor(pos.z - radius - MARGIN));
+        int maxZ = ChunkSectionPos.getSectionCoord(MathHelper.floor(pos.z + radius + MARGIN));
+
+        // a large enough radius covers more chunks than there are occupied ones
+        if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) > index.buckets.size()) {
+            for (ObjectArrayList<ServerPlayerEntity> bucket : index.buckets.values()) {
+                visitWithin(bucket, pos, squaredRadius, visitor);
+            }
+            return;
+        }
+
+        for (int x = minX; x <= maxX; ++x) {
+            for (int z = minZ; z <= maxZ; ++z) {
+                ObjectArrayList<ServerPlayerEntity> bucket = index.buckets.get(ChunkPos.toLong(x, z));
+                if (bucket != null)
+                    visitWithin(bucket, pos, squaredRadius, visitor);
+            }
+        }
+    }
+
+    private static void visitWithin(ObjectArrayList<ServerPlayerEntity> bucket, Vec3d pos, double squaredRadius, Consumer<ServerPlayerEntity> visitor) {
+        for (int i = 0; i < bucket.size(); ++i) {
+            ServerPlayerEntity player = bucket.get(i);
+            if (player.squaredDistanceTo(pos) <= squaredRadius)
+                visitor.accept(player);
+        }
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    private static final class WorldIndex {
+        private final Long2ObjectMap<ObjectArrayList<ServerPlayerEntity>> buckets = new Long2ObjectOpenHashMap<>();
+        private final Reference2LongMap<ServerPlayerEntity> players = new Reference2LongOpenHashMap<>();
+
+        private void refresh(ServerWorld world) {
+            ObjectIterator<Reference2LongMap.Entry<ServerPlayerEntity>> iterator = players.reference2LongEntrySet().iterator();
+            while (iterator.hasNext()) {
+                Reference2LongMap.Entry<ServerPlayerEntity> entry = iterator.next();
+                ServerPlayerEntity player = entry.getKey();
+                if (player.isRemoved() || player.getServerWorld() != world) {
+                    removeFromBucket(player, entry.getLongValue());
+                    iterator.remove();
+                }
+            }
+
+            for (ServerPlayerEntity player : world.getPlayers()) {
+                long chunkPos = player.getChunkPos().toLong();
+                if (!players.containsKey(player)) {
+                    players.put(player, chunkPos);
+                    buckets.computeIfAbsent(chunkPos, l -> new ObjectArrayList<>()).add(player);
+                } else {
+                    long previous = players.put(player, chunkPos);
+                    if (previous != chunkPos) {
+                        removeFromBucket(player, previous);
+                        buckets.computeIfAbsent(chunkPos, l -> new ObjectArrayList<>()).add(player);
+                    }
+                }
+            }
+        }
+
+        private void removeFromBucket(ServerPlayerEntity player, long chunkPos) {
+            ObjectArrayList<ServerPlayerEntity> bucket = buckets.get(chunkPos);
+            if (bucket != null) {
+                bucket.remove(player);
+                if (bucket.isEmpty())
+                    buckets.remove(chunkPos);
+            }
+        }
+    }
+}
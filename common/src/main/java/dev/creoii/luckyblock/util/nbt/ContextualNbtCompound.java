@@ -1,17 +1,12 @@
 package dev.creoii.luckyblock.util.nbt;
 
 import com.google.common.collect.Maps;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.google.gson.JsonPrimitive;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.Dynamic;
-import com.mojang.serialization.JsonOps;
-import dev.creoii.luckyblock.LuckyBlockMod;
 import dev.creoii.luckyblock.outcome.Outcome;
 import dev.creoii.luckyblock.util.vec.VecProvider;
+import net.minecraft.entity.Entity;
 import net.minecraft.nbt.*;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
@@ -54,17 +49,44 @@ public class ContextualNbtCompound extends NbtCompound {
     }
 
     /**
-     * Converts any byte types into int types, so the element can be parsed into an IntProvider.
+     * Reads this compound into an entity that is never spawned and returns the keys of this compound as the entity writes them back.
+     * Every provider is sampled once, so the result can be read into many entities without decoding them again.
      */
-    private void clean(String key, JsonElement element) {
-        if (element.isJsonObject()) {
-            Map<String, JsonElement> map = ((JsonObject) element).asMap();
-            ((NbtCompound) entries.get(key)).entries.forEach((s, nbtElement) -> {
-                if (nbtElement instanceof NbtByte nbtByte) {
-                    map.replace(s, new JsonPrimitive(nbtByte.intValue()));
-                }
-            });
+    public NbtCompound resolveFor(Entity prototype) {
+        prototype.readNbt(this);
+        NbtCompound written = prototype.writeNbt(new NbtCompound());
+        NbtCompound resolved = new NbtCompound();
+        for (String key : getKeys()) {
+            NbtElement element = written.get(key);
+            if (element != null)
+                resolved.put(key, element);
+        }
+        return resolved;
+    }
+
+    /**
+     * @return whether a compound anywhere in this compound decodes as a provider, in which case the compound can read
+     * differently every time and must not be resolved once for many entities
+     */
+    public boolean hasProviders() {
+        return hasProviders(this);
+    }
+
+    private static boolean hasProviders(NbtElement element) {
+        if (element instanceof NbtCompound compound) {
+            if (compound.contains("type", NbtElement.STRING_TYPE) && (ProviderCache.INT.decodes(compound) || ProviderCache.FLOAT.decodes(compound) || ProviderCache.VEC.decodes(compound)))
+                return true;
+            for (String key : compound.getKeys()) {
+                if (hasProviders(compound.get(key)))
+                    return true;
+            }
+        } else if (element instanceof NbtList list) {
+            for (NbtElement child : list) {
+                if (hasProviders(child))
+                    return true;
+            }
         }
+        return false;
     }
 
     public int getInt(String key) {
@@ -72,12 +94,9 @@ public class ContextualNbtCompound extends NbtCompound {
             if (contains(key, 99)) {
                 return ((AbstractNbtNumber) entries.get(key)).intValue();
             } else if (getType(key) == 10 && context != null) {
-                JsonElement element = JsonParser.parseString(entries.get(key).toString());
-                clean(key, element);
-                DataResult<IntProvider> dataResult = IntProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, element);
-                Optional<IntProvider> intProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing int provider: {}", string));
+                Optional<IntProvider> intProvider = ProviderCache.INT.get(entries.get(key));
                 if (intProvider.isPresent()) {
-                    return intProvider.get().get(context.world().getRandom());
+                    return intProvider.get().get(context.random());
                 }
             }
         } catch (ClassCastException ignored) {}
@@ -90,12 +109,9 @@ public class ContextualNbtCompound extends NbtCompound {
             if (contains(key, 99)) {
                 return ((AbstractNbtNumber) entries.get(key)).shortValue();
             } else if (getType(key) == 10 && context != null) {
-                JsonElement element = JsonParser.parseString(entries.get(key).toString());
-                clean(key, element);
-                DataResult<IntProvider> dataResult = IntProvider.createValidatingCodec(-32768, 32767).parse(JsonOps.INSTANCE, element);
-                Optional<IntProvider> intProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing int provider: {}", string));
+                Optional<IntProvider> intProvider = ProviderCache.SHORT.get(entries.get(key));
                 if (intProvider.isPresent()) {
-                    return (short) intProvider.get().get(context.world().getRandom());
+                    return (short) intProvider.get().get(context.random());
                 }
             }
         } catch (ClassCastException ignored) {}
@@ -108,12 +124,9 @@ public class ContextualNbtCompound extends NbtCompound {
             if (contains(key, 99)) {
                 return ((AbstractNbtNumber) entries.get(key)).byteValue();
             } else if (getType(key) == 10 && context != null) {
-                JsonElement element = JsonParser.parseString(entries.get(key).toString());
-                clean(key, element);
-                DataResult<IntProvider> dataResult = IntProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, element);
-                Optional<IntProvider> intProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing int provider: {}", string));
+                Optional<IntProvider> intProvider = ProviderCache.INT.get(entries.get(key));
                 if (intProvider.isPresent()) {
-                    return (byte) intProvider.get().get(context.world().getRandom());
+                    return (byte) intProvider.get().get(context.random());
                 }
             }
         } catch (ClassCastException ignored) {}
@@ -126,12 +139,9 @@ public class ContextualNbtCompound extends NbtCompound {
             if (contains(key, 99)) {
                 return ((AbstractNbtNumber) entries.get(key)).longValue();
             } else if (getType(key) == 10 && context != null) {
-                JsonElement element = JsonParser.parseString(entries.get(key).toString());
-                clean(key, element);
-                DataResult<IntProvider> dataResult = IntProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, element);
-                Optional<IntProvider> intProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing int provider: {}", string));
+                Optional<IntProvider> intProvider = ProviderCache.INT.get(entries.get(key));
                 if (intProvider.isPresent()) {
-                    return intProvider.get().get(context.world().getRandom());
+                    return intProvider.get().get(context.random());
                 }
             }
         } catch (ClassCastException ignored) {}
@@ -144,10 +154,9 @@ public class ContextualNbtCompound extends NbtCompound {
             if (contains(key, 99)) {
                 return ((AbstractNbtNumber) entries.get(key)).floatValue();
             } else if (getType(key) == 10 && context != null) {
-                DataResult<FloatProvider> dataResult = FloatProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(entries.get(key).toString()));
-                Optional<FloatProvider> floatProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing float provider: {}", string));
+                Optional<FloatProvider> floatProvider = ProviderCache.FLOAT.get(entries.get(key));
                 if (floatProvider.isPresent()) {
-                    return floatProvider.get().get(context.world().getRandom());
+                    return floatProvider.get().get(context.random());
                 }
             }
         } catch (ClassCastException ignored) {}
@@ -160,10 +169,9 @@ public class ContextualNbtCompound extends NbtCompound {
             if (contains(key, 99)) {
                 return ((AbstractNbtNumber) entries.get(key)).doubleValue();
             } else if (getType(key) == 10 && context != null) {
-                DataResult<FloatProvider> dataResult = FloatProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(entries.get(key).toString()));
-                Optional<FloatProvider> floatProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing float provider: {}", string));
+                Optional<FloatProvider> floatProvider = ProviderCache.FLOAT.get(entries.get(key));
                 if (floatProvider.isPresent()) {
-                    return floatProvider.get().get(context.world().getRandom());
+                    return floatProvider.get().get(context.random());
                 }
             }
         } catch (ClassCastException ignored) {}
@@ -176,8 +184,7 @@ public class ContextualNbtCompound extends NbtCompound {
             if (contains(key, 11)) {
                 return ((NbtIntArray) entries.get(key)).getIntArray();
             } else if (getType(key) == 10 && context != null) {
-                DataResult<VecProvider> dataResult = VecProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(entries.get(key).toString()));
-                Optional<VecProvider> vecProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing vec provider: {}", string));
+                Optional<VecProvider> vecProvider = ProviderCache.VEC.get(entries.get(key));
                 if (vecProvider.isPresent()) {
                     BlockPos pos = vecProvider.get().getPos(context);
                     return new int[]{pos.getX(), pos.getY(), pos.getZ()};
@@ -193,8 +200,7 @@ public class ContextualNbtCompound extends NbtCompound {
             if (contains(key, 12)) {
                 return ((NbtLongArray) entries.get(key)).getLongArray();
             } else if (getType(key) == 10 && context != null) {
-                DataResult<VecProvider> dataResult = VecProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(entries.get(key).toString()));
-                Optional<VecProvider> vecProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing vec provider: {}", string));
+                Optional<VecProvider> vecProvider = ProviderCache.VEC.get(entries.get(key));
                 if (vecProvider.isPresent()) {
                     BlockPos pos = vecProvider.get().getPos(context);
                     return new long[]{pos.getX(), pos.getY(), pos.getZ()};
@@ -223,8 +229,7 @@ public class ContextualNbtCompound extends NbtCompound {
                 nbtList.setContext(context);
                 return nbtList;
             } else if (getType(key) == 10 && context != null) {
-                DataResult<VecProvider> dataResult = VecProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(entries.get(key).toString()));
-                Optional<VecProvider> vecProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing vec provider: {}", string));
+                Optional<VecProvider> vecProvider = ProviderCache.VEC.get(entries.get(key));
                 if (vecProvider.isPresent()) {
                     ContextualNbtList nbtList = new ContextualNbtList();
                     nbtList.setContext(context);
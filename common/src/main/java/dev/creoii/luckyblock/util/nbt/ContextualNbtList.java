@@ -2,14 +2,9 @@ package dev.creoii.luckyblock.util.nbt;
 
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
-import com.google.gson.JsonParser;
-import com.mojang.serialization.DataResult;
-import com.mojang.serialization.JsonOps;
-import dev.creoii.luckyblock.LuckyBlockMod;
 import dev.creoii.luckyblock.outcome.Outcome;
 import dev.creoii.luckyblock.util.vec.VecProvider;
 import net.minecraft.nbt.*;
-import net.minecraft.nbt.visitor.StringNbtWriter;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.floatprovider.FloatProvider;
@@ -53,9 +48,7 @@ public class ContextualNbtList extends NbtList {
                 ((ContextualNbtList) nbtElement).setContext(context);
                 return (ContextualNbtList) nbtElement;
             } else if (nbtElement.getType() == 10 && context != null) {
-                StringNbtWriter writer = new StringNbtWriter();
-                DataResult<VecProvider> dataResult = VecProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(writer.apply(getCompound(index))));
-                Optional<VecProvider> vecProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing vec provider: {}", string));
+                Optional<VecProvider> vecProvider = ProviderCache.VEC.get(nbtElement);
                 if (vecProvider.isPresent()) {
                     ContextualNbtList nbtList = new ContextualNbtList();
                     nbtList.setContext(context);
@@ -79,11 +72,9 @@ public class ContextualNbtList extends NbtList {
             if (nbtElement.getType() == 3) {
                 return ((NbtShort) nbtElement).shortValue();
             } else if (nbtElement.getType() == 10 && context != null) {
-                StringNbtWriter writer = new StringNbtWriter();
-                DataResult<IntProvider> dataResult = IntProvider.createValidatingCodec(-32768, 32767).parse(JsonOps.INSTANCE, JsonParser.parseString(writer.apply(getCompound(index))));
-                Optional<IntProvider> intProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing int provider: {}", string));
+                Optional<IntProvider> intProvider = ProviderCache.SHORT.get(nbtElement);
                 if (intProvider.isPresent()) {
-                    return (short) intProvider.get().get(context.world().getRandom());
+                    return (short) intProvider.get().get(context.random());
                 }
             }
         }
@@ -96,11 +87,9 @@ public class ContextualNbtList extends NbtList {
             if (nbtElement.getType() == 3) {
                 return ((NbtInt) nbtElement).intValue();
             } else if (nbtElement.getType() == 10 && context != null) {
-                StringNbtWriter writer = new StringNbtWriter();
-                DataResult<IntProvider> dataResult = IntProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(writer.apply(getCompound(index))));
-                Optional<IntProvider> intProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing int provider: {}", string));
+                Optional<IntProvider> intProvider = ProviderCache.INT.get(nbtElement);
                 if (intProvider.isPresent()) {
-                    return intProvider.get().get(context.world().getRandom());
+                    return intProvider.get().get(context.random());
                 }
             }
         }
@@ -113,9 +102,7 @@ public class ContextualNbtList extends NbtList {
             if (nbtElement.getType() == 11) {
                 return ((NbtIntArray)nbtElement).getIntArray();
             } else if (nbtElement.getType() == 10 && context != null) {
-                StringNbtWriter writer = new StringNbtWriter();
-                DataResult<VecProvider> dataResult = VecProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(writer.apply(getCompound(index))));
-                Optional<VecProvider> vecProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing vec provider: {}", string));
+                Optional<VecProvider> vecProvider = ProviderCache.VEC.get(nbtElement);
                 if (vecProvider.isPresent()) {
                     BlockPos pos = vecProvider.get().getPos(context);
                     return new int[]{pos.getX(), pos.getY(), pos.getZ()};
@@ -132,9 +119,7 @@ public class ContextualNbtList extends NbtList {
             if (nbtElement.getType() == 12) {
                 return ((NbtLongArray) nbtElement).getLongArray();
             } else if (nbtElement.getType() == 10 && context != null) {
-                StringNbtWriter writer = new StringNbtWriter();
-                DataResult<VecProvider> dataResult = VecProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(writer.apply(getCompound(index))));
-                Optional<VecProvider> vecProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing vec provider: {}", string));
+                Optional<VecProvider> vecProvider = ProviderCache.VEC.get(nbtElement);
                 if (vecProvider.isPresent()) {
                     BlockPos pos = vecProvider.get().getPos(context);
                     return new long[]{pos.getX(), pos.getY(), pos.getZ()};
@@ -151,11 +136,9 @@ public class ContextualNbtList extends NbtList {
             if (nbtElement.getType() == 6) {
                 return ((NbtDouble)nbtElement).doubleValue();
             } else if (nbtElement.getType() == 10 && context != null) {
-                StringNbtWriter writer = new StringNbtWriter();
-                DataResult<FloatProvider> dataResult = FloatProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(writer.apply(getCompound(index))));
-                Optional<FloatProvider> floatProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing float provider: {}", string));
+                Optional<FloatProvider> floatProvider = ProviderCache.FLOAT.get(nbtElement);
                 if (floatProvider.isPresent()) {
-                    return floatProvider.get().get(context.world().getRandom());
+                    return floatProvider.get().get(context.random());
                 }
             }
         }
@@ -169,11 +152,9 @@ public class ContextualNbtList extends NbtList {
             if (nbtElement.getType() == 5) {
                 return ((NbtFloat)nbtElement).floatValue();
             } else if (nbtElement.getType() == 10 && context != null) {
-                StringNbtWriter writer = new StringNbtWriter();
-                DataResult<FloatProvider> dataResult = FloatProvider.VALUE_CODEC.parse(JsonOps.INSTANCE, JsonParser.parseString(writer.apply(getCompound(index))));
-                Optional<FloatProvider> floatProvider = dataResult.resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing float provider: {}", string));
+                Optional<FloatProvider> floatProvider = ProviderCache.FLOAT.get(nbtElement);
                 if (floatProvider.isPresent()) {
-                    return floatProvider.get().get(context.world().getRandom());
+                    return floatProvider.get().get(context.random());
                 }
             }
         }
@@ -0,0 +1,59 @@
+package dev.creoii.luckyblock.util.nbt;
+
+import com.mojang.serialization.Codec;
+import dev.creoii.luckyblock.LuckyBlockMod;
+import dev.creoii.luckyblock.util.vec.VecProvider;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.util.math.floatprovider.FloatProvider;
+import net.minecraft.util.math.intprovider.IntProvider;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Providers decoded straight from nbt, cached by the value of the element they were decoded from.
+ * Copies of a compound share the decoded provider, so reading a provider field only samples it.
+ * Failed decodes are cached as well, so their error is only logged once.
+ */
+final class ProviderCache<T> {
+    static final ProviderCache<IntProvider> INT = new ProviderCache<>(IntProvider.VALUE_CODEC, "int provider");
+    static final ProviderCache<IntProvider> SHORT = new ProviderCache<>(IntProvider.createValidatingCodec(Short.MIN_VALUE, Short.MAX_VALUE), "int provider");
+    static final ProviderCache<FloatProvider> FLOAT = new ProviderCache<>(FloatProvider.VALUE_CODEC, "float provider");
+    static final ProviderCache<VecProvider> VEC = new ProviderCache<>(VecProvider.VALUE_CODEC, "vec provider");
+    /**
+     * Templated outcomes can render a new provider on every break, so the cache is emptied once it grows past this.
+     */
+    private static final int MAX_SIZE = 1024;
+    private final Map<NbtElement, Optional<T>> cache = new ConcurrentHashMap<>();
+    private final Codec<T> codec;
+    private final String name;
+
+    private ProviderCache(Codec<T> codec, String name) {
+        this.codec = codec;
+        this.name = name;
+    }
+
+    Optional<T> get(NbtElement element) {
+        Optional<T> cached = cache.get(element);
+        if (cached != null)
+            return cached;
+
+        Optional<T> provider = codec.parse(NbtOps.INSTANCE, element).resultOrPartial(string -> LuckyBlockMod.LOGGER.error("Error parsing {}: {}", name, string));
+        if (cache.size() >= MAX_SIZE)
+            cache.clear();
+        cache.put(element.copy(), provider);
+        return provider;
+    }
+
+    /**
+     * Like {@link #get} without logging or caching a failed decode, for elements that are only probed.
+     */
+    boolean decodes(NbtElement element) {
+        Optional<T> cached = cache.get(element);
+        if (cached != null)
+            return cached.isPresent();
+        return codec.parse(NbtOps.INSTANCE, element).result().isPresent();
+    }
+}
@@ -14,6 +14,7 @@ import net.minecraft.util.math.Vec3d;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 public class Cube extends Shape {
@@ -29,27 +30,109 @@ public class Cube extends Shape {
         this.hollow = hollow;
     }
 
+    static BlockPos getTo(Vec3d size) {
+        return new BlockPos(Math.max(MathHelper.floor(size.x) - 1, 0), Math.max(MathHelper.floor(size.y) - 1, 0), Math.max(MathHelper.floor(size.z) - 1, 0));
+    }
+
     @Override
-    public List<BlockPos> getBlockPositions(Outcome.Context context) {
-        List<BlockPos> positions = new ArrayList<>();
-        Vec3d size = this.size.getVec(context);
-        BlockPos to = new BlockPos(Math.max(MathHelper.floor(size.x) - 1, 0), Math.max(MathHelper.floor(size.y) - 1, 0), Math.max(MathHelper.floor(size.z) - 1, 0));
+    public void forEachBlock(Outcome.Context context, Consumer<BlockPos> visitor) {
+        ShapeMask.forEach(this, resolveSize(context), hollow, this::generate, visitor);
+    }
+
+    void generate(Vec3d size, Consumer<BlockPos> visitor) {
+        BlockPos to = getTo(size);
+        BlockPos.Mutable pos = new BlockPos.Mutable();
 
         for (int z = 0; z <= to.getZ(); ++z) {
             for (int y = 0; y <= to.getY(); ++y) {
                 for (int x = 0; x <= to.getX(); ++x) {
-                    BlockPos pos = new BlockPos(x, y, z);
                     if (hollow) {
-                        if (pos.getX() == 0 || pos.getX() == to.getX() || pos.getY() == 0 || pos.getY() == to.getY() || pos.getZ() == 0 || pos.getZ() == to.getZ()) {
-                            positions.add(pos);
+                        if (x == 0 || x == to.getX() || y == 0 || y == to.getY() || z == 0 || z == to.getZ()) {
+                            visitor.accept(pos.set(x, y, z));
                         }
-                    } else positions.add(pos);
+                    } else visitor.accept(pos.set(x, y, z));
                 }
             }
         }
+    }
+
+    @Override
+    public int count(Outcome.Context context) {
+        return count(getTo(this.size.getVec(context)));
+    }
+
+    int count(BlockPos to) {
+        int total = (to.getX() + 1) * (to.getY() + 1) * (to.getZ() + 1);
+        if (hollow) {
+            return total - Math.max(to.getX() - 1, 0) * Math.max(to.getY() - 1, 0) * Math.max(to.getZ() - 1, 0);
+        }
+        return total;
+    }
+
+    /**
+     * Decodes each picked index straight into its position, in the order {@link #forEachBlock} visits them.
+     */
+    @Override
+    public List<BlockPos> sample(Outcome.Context context, int count) {
+        BlockPos to = getTo(resolveSize(context));
+        int total = count(to);
+        if (count <= 0 || total <= 0)
+            return List.of();
+
+        List<BlockPos> positions = new ArrayList<>(Math.min(count, total));
+        for (int index : pickIndices(context.random(), total, Math.min(count, total))) {
+            positions.add(decode(to, index));
+        }
         return positions;
     }
 
+    /**
+     * @return the position {@link #forEachBlock} visits at the index
+     */
+    BlockPos decode(BlockPos to, int index) {
+        return hollow ? decodeHollow(to, index) : decodeFace(to.getX() + 1, index, 0, (to.getX() + 1) * (to.getY() + 1));
+    }
+
+    /**
+     * The position of the index in a full {@code width} wide layer, where each layer holds {@code layerSize} positions.
+     */
+    private static BlockPos decodeFace(int width, int index, int z, int layerSize) {
+        int layer = index / layerSize;
+        int inLayer = index % layerSize;
+        return new BlockPos(inLayer % width, inLayer / width, z + layer);
+    }
+
+    /**
+     * The first and last layers are full, every layer in between only has its outer ring.
+     */
+    private static BlockPos decodeHollow(BlockPos to, int index) {
+        int width = to.getX() + 1;
+        int height = to.getY() + 1;
+        int depth = to.getZ() + 1;
+        int face = width * height;
+        if (index < face || depth == 1)
+            return decodeFace(width, index, 0, face);
+
+        index -= face;
+        int ring = face - Math.max(width - 2, 0) * Math.max(height - 2, 0);
+        int middle = (depth - 2) * ring;
+        if (index >= middle)
+            return decodeFace(width, index - middle, depth - 1, face);
+
+        int z = 1 + index / ring;
+        index %= ring;
+        if (width <= 2 || height <= 2)
+            return decodeFace(width, index, z, face);
+        if (index < width)
+            return new BlockPos(index, 0, z);
+
+        index -= width;
+        if (index < 2 * (height - 2))
+            return new BlockPos((index & 1) == 0 ? 0 : width - 1, 1 + index / 2, z);
+
+        return new BlockPos(index - 2 * (height - 2), height - 1, z);
+    }
+
     @Override
     public List<Vec3d> getVecPositions(Outcome.Context context) {
         return List.of();
@@ -61,8 +144,9 @@ public class Cube extends Shape {
         Vec3d size = this.size.getVec(context);
         BlockPos from = VecProvider.fromVec(center.subtract(size.x / 2d, size.y / 2d, size.z / 2d));
         if (context.world() instanceof ServerWorld serverWorld) {
+            List<BlockPos> positions = getBlockPositions(context);
             for (Entity entity : serverWorld.getEntitiesByClass(Entity.class, Box.of(center, size.x, size.y, size.z), filter)) {
-                for (BlockPos pos : getBlockPositions(context)) {
+                for (BlockPos pos : positions) {
                     if (entity.squaredDistanceTo(pos.add(from).toCenterPos()) <= 1d) {
                         entities.add(entity);
                         break;
@@ -8,6 +8,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 public class Empty extends Shape {
@@ -18,6 +19,15 @@ public class Empty extends Shape {
         super(ShapeType.EMPTY, ConstantVecProvider.ZERO);
     }
 
+    @Override
+    public void forEachBlock(Outcome.Context context, Consumer<BlockPos> visitor) {
+    }
+
+    @Override
+    public int count(Outcome.Context context) {
+        return 0;
+    }
+
     @Override
     public List<BlockPos> getBlockPositions(Outcome.Context context) {
         return List.of();
@@ -8,8 +8,8 @@ import net.minecraft.entity.Entity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 public class Line extends Shape {
@@ -29,15 +29,18 @@ public class Line extends Shape {
     }
 
     @Override
-    public List<BlockPos> getBlockPositions(Outcome.Context context) {
-        List<BlockPos> positions = new ArrayList<>();
-
+    public void forEachBlock(Outcome.Context context, Consumer<BlockPos> visitor) {
         Vec3d direction = to.getVec(context).subtract(from.getVec(context)).normalize();
-        for (int i = 0; i <= size.getPos(context).getX(); ++i) {
-            positions.add(VecProvider.fromVec(direction.multiply(i)));
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int length = size.getPos(context).getX();
+        for (int i = 0; i <= length; ++i) {
+            visitor.accept(pos.set(direction.x * i, direction.y * i, direction.z * i));
         }
+    }
 
-        return positions;
+    @Override
+    public int count(Outcome.Context context) {
+        return Math.max(size.getPos(context).getX() + 1, 0);
     }
 
     @Override
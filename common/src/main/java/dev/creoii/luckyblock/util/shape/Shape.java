@@ -6,11 +6,17 @@ import dev.creoii.luckyblock.LuckyBlockMod;
 import dev.creoii.luckyblock.outcome.Outcome;
 import dev.creoii.luckyblock.util.vec.ConstantVecProvider;
 import dev.creoii.luckyblock.util.vec.VecProvider;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import net.minecraft.entity.Entity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.math.random.Random;
+import org.apache.commons.lang3.mutable.MutableInt;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -36,7 +42,76 @@ public abstract class Shape {
         return size;
     }
 
-    public abstract List<BlockPos> getBlockPositions(Outcome.Context context);
+    /**
+     * Samples the size of the shape and reports it to {@link dev.creoii.luckyblock.outcome.OutcomeMetrics},
+     * so slow outcomes can be traced back to the size they resolved.
+     */
+    protected Vec3d resolveSize(Outcome.Context context) {
+        Vec3d size = this.size.getVec(context);
+        LuckyBlockMod.OUTCOME_METRICS.addShapeSize(size);
+        return size;
+    }
+
+    /**
+     * Visits every block position of the shape, relative to its origin.
+     * The position handed to the visitor is reused between calls, use {@link BlockPos#toImmutable()} to keep it.
+     */
+    public abstract void forEachBlock(Outcome.Context context, Consumer<BlockPos> visitor);
+
+    /**
+     * @return the number of positions {@link #forEachBlock} visits, computed without visiting them
+     */
+    public abstract int count(Outcome.Context context);
+
+    public List<BlockPos> getBlockPositions(Outcome.Context context) {
+        List<BlockPos> positions = new ArrayList<>();
+        forEachBlock(context, pos -> positions.add(pos.toImmutable()));
+        return positions;
+    }
+
+    /**
+     * Picks up to {@code count} distinct positions of the shape uniformly at random, relative to its origin.
+     * By default a reservoir is kept while the shape is visited once, shapes that can locate their n-th position
+     * directly override this so the rest of the shape is never visited.
+     */
+    public List<BlockPos> sample(Outcome.Context context, int count) {
+        return sampleVisited(context.random(), count, visitor -> forEachBlock(context, visitor));
+    }
+
+    /**
+     * Keeps a reservoir of {@code count} positions while the shape is visited once.
+     */
+    protected static List<BlockPos> sampleVisited(Random random, int count, Consumer<Consumer<BlockPos>> shape) {
+        if (count <= 0)
+            return List.of();
+
+        List<BlockPos> reservoir = new ArrayList<>(Math.min(count, 64));
+        MutableInt visited = new MutableInt();
+        shape.accept(pos -> {
+            int index = visited.getAndIncrement();
+            if (index < count) {
+                reservoir.add(pos.toImmutable());
+            } else {
+                int slot = random.nextInt(index + 1);
+                if (slot < count)
+                    reservoir.set(slot, pos.toImmutable());
+            }
+        });
+        return reservoir;
+    }
+
+    /**
+     * Picks {@code count} distinct indices below {@code total} uniformly at random, using Floyd's algorithm.
+     */
+    protected static int[] pickIndices(Random random, int total, int count) {
+        IntSet picked = new IntOpenHashSet(count);
+        for (int i = total - count; i < total; ++i) {
+            int index = random.nextInt(i + 1);
+            if (!picked.add(index))
+                picked.add(i);
+        }
+        return picked.toIntArray();
+    }
 
     public abstract List<Vec3d> getVecPositions(Outcome.Context context);
 
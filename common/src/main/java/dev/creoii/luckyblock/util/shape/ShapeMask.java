@@ -0,0 +1,120 @@
+package dev.creoii.luckyblock.util.shape;
+
+import dev.creoii.luckyblock.util.vec.ConstantVecProvider;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * The block positions of a shape at a resolved size, packed into a {@code long[]}.
+ * Masks are kept in an LRU cache bounded by the positions they hold, {@code lucky.shapeMaskPositions} in total,
+ * so outcomes that break with the same shape and size skip the geometry entirely.
+ * Only shapes with a constant size are cached, a random size would evict the masks that are reused for ones that rarely are.
+ * Masks above {@link #MAX_POSITIONS} positions are streamed every time instead of being cached.
+ */
+public final class ShapeMask {
+    private static final int MAX_CACHED_POSITIONS = Integer.getInteger("lucky.shapeMaskPositions", 1 << 20);
+    static final int MAX_POSITIONS = Math.min(1 << 18, MAX_CACHED_POSITIONS);
+    private static final Map<Key, ShapeMask> CACHE = new LinkedHashMap<>(16, .75f, true);
+    private static int cachedPositions;
+    private final long[] positions;
+
+    private ShapeMask(long[] positions) {
+        this.positions = positions;
+    }
+
+    /**
+     * Visits the cached mask for the key, or runs the generator and caches what it visits.
+     * @param variant anything else the positions depend on, such as whether the shape is hollow
+     */
+    public static void forEach(Shape shape, Vec3d size, Object variant, BiConsumer<Vec3d, Consumer<BlockPos>> generator, Consumer<BlockPos> visitor) {
+        if (!(shape.getSize() instanceof ConstantVecProvider)) {
+            generator.accept(size, visitor);
+            return;
+        }
+
+        Key key = new Key(shape.getType(), size, variant);
+        ShapeMask mask = get(key);
+        if (mask != null) {
+            mask.forEach(visitor);
+            return;
+        }
+
+        Recorder recorder = new Recorder(visitor);
+        generator.accept(size, recorder);
+        if (recorder.positions != null)
+            put(key, new ShapeMask(recorder.positions.toLongArray()));
+    }
+
+    /**
+     * @return the number of positions of the cached mask for the key, or -1 if it is not cached
+     */
+    public static int getCachedSize(Shape shape, Vec3d size, Object variant) {
+        if (!(shape.getSize() instanceof ConstantVecProvider))
+            return -1;
+        ShapeMask mask = get(new Key(shape.getType(), size, variant));
+        return mask != null ? mask.size() : -1;
+    }
+
+    @Nullable
+    private static ShapeMask get(Key key) {
+        synchronized (CACHE) {
+            return CACHE.get(key);
+        }
+    }
+
+    private static void put(Key key, ShapeMask mask) {
+        synchronized (CACHE) {
+            ShapeMask previous = CACHE.put(key, mask);
+            cachedPositions += mask.size() - (previous != null ? previous.size() : 0);
+            Iterator<ShapeMask> iterator = CACHE.values().iterator();
+            while (cachedPositions > MAX_CACHED_POSITIONS && iterator.hasNext()) {
+                cachedPositions -= iterator.next().size();
+                iterator.remove();
+            }
+        }
+    }
+
+    public int size() {
+        return positions.length;
+    }
+
+    public void forEach(Consumer<BlockPos> visitor) {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for (long position : positions) {
+            visitor.accept(pos.set(position));
+        }
+    }
+
+    /**
+     * Records the positions it passes on, and drops them as soon as there are too many to cache.
+     */
+    private static final class Recorder implements Consumer<BlockPos> {
+        private final Consumer<BlockPos> visitor;
+        @Nullable
+        private LongArrayList positions = new LongArrayList();
+
+        private Recorder(Consumer<BlockPos> visitor) {
+            this.visitor = visitor;
+        }
+
+        @Override
+        public void accept(BlockPos pos) {
+            if (positions != null) {
+                if (positions.size() < MAX_POSITIONS) {
+                    positions.add(pos.asLong());
+                } else positions = null;
+            }
+            visitor.accept(pos);
+        }
+    }
+
+    private record Key(ShapeType type, Vec3d size, Object variant) {}
+}
@@ -5,14 +5,18 @@ import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import dev.creoii.luckyblock.outcome.Outcome;
 import dev.creoii.luckyblock.util.vec.VecProvider;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.entity.Entity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.math.random.Random;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 public class Sphere extends Shape {
@@ -21,6 +25,10 @@ public class Sphere extends Shape {
                 Codec.BOOL.fieldOf("hollow").orElse(false).forGetter(sphere -> sphere.hollow)
         ).apply(instance, Sphere::new);
     });
+    /**
+     * A solid sphere keeps about half of its bounding box, so this is only reached by thin hollow spheres.
+     */
+    private static final int MAX_ATTEMPTS_PER_POSITION = 32;
     private final boolean hollow;
 
     public Sphere(VecProvider size, boolean hollow) {
@@ -29,32 +37,147 @@ public class Sphere extends Shape {
     }
 
     @Override
-    public List<BlockPos> getBlockPositions(Outcome.Context context) {
-        List<BlockPos> positions = new ArrayList<>();
-        Vec3d size = this.size.getVec(context);
+    public void forEachBlock(Outcome.Context context, Consumer<BlockPos> visitor) {
+        ShapeMask.forEach(this, resolveSize(context), hollow, this::generate, visitor);
+    }
+
+    void generate(Vec3d size, Consumer<BlockPos> visitor) {
+        double inner = getInnerDistance(size);
+        BlockPos.Mutable pos = new BlockPos.Mutable();
 
         for (int x = (int) Math.round(-size.x) + 1; x <= Math.round(size.x) - 1; x++) {
             for (int y = (int) Math.round(-size.y) + 1; y <= Math.round(size.y) - 1; y++) {
                 for (int z = (int) Math.round(-size.z) + 1; z <= Math.round(size.z) - 1; z++) {
-                    double normalizedX = x / size.x;
-                    double normalizedY = y / size.y;
-                    double normalizedZ = z / size.z;
-
-                    double distance2 = normalizedX * normalizedX + normalizedY * normalizedY + normalizedZ * normalizedZ;
-
-                    if (hollow) {
-                        if (distance2 <= 1d && distance2 >= Math.pow(1 - 1d / Math.max(size.x, Math.max(size.y, size.z)), 2)) {
-                            positions.add(new BlockPos(x, y, z));
-                        }
-                    } else if (distance2 <= 1d) {
-                        positions.add(new BlockPos(x, y, z));
+                    if (contains(x, y, z, size, inner)) {
+                        visitor.accept(pos.set(x, y, z));
                     }
                 }
             }
         }
+    }
+
+    /**
+     * Counts each z column with a binary search, since the squared distance only grows with {@code |z|}.
+     * Sizes ending in .5 make the range {@link #generate} covers lopsided, so each side of {@code z = 0} is counted on its own.
+     */
+    @Override
+    public int count(Outcome.Context context) {
+        return count(this.size.getVec(context));
+    }
+
+    int count(Vec3d size) {
+        double inner = getInnerDistance(size);
+        int minZ = (int) Math.round(-size.z) + 1;
+        int maxZ = (int) Math.round(size.z) - 1;
+        if (minZ > maxZ)
+            return 0;
+
+        // the |z| covered on the positive side, zero included, and on the negative side
+        int positiveFrom = Math.max(minZ, 0);
+        int negativeFrom = Math.max(-maxZ, 1);
+        int limit = Math.max(maxZ, -minZ);
+
+        int count = 0;
+        for (int x = (int) Math.round(-size.x) + 1; x <= Math.round(size.x) - 1; x++) {
+            for (int y = (int) Math.round(-size.y) + 1; y <= Math.round(size.y) - 1; y++) {
+                // largest |z| within the outer surface
+                int high = -1;
+                for (int bottom = 0, top = limit; bottom <= top; ) {
+                    int middle = (bottom + top) >>> 1;
+                    if (getDistance(x, y, middle, size) <= 1d) {
+                        high = middle;
+                        bottom = middle + 1;
+                    } else top = middle - 1;
+                }
+                if (high < 0)
+                    continue;
+
+                // smallest |z| outside of the inner surface
+                int low = high + 1;
+                for (int bottom = 0, top = high; bottom <= top; ) {
+                    int middle = (bottom + top) >>> 1;
+                    if (getDistance(x, y, middle, size) >= inner) {
+                        low = middle;
+                        top = middle - 1;
+                    } else bottom = middle + 1;
+                }
+                count += overlap(low, high, positiveFrom, maxZ) + overlap(low, high, negativeFrom, -minZ);
+            }
+        }
+        return count;
+    }
+
+    private static int overlap(int low, int high, int from, int to) {
+        return Math.max(Math.min(high, to) - Math.max(low, from) + 1, 0);
+    }
+
+    /**
+     * Draws positions from the bounding box until enough of them land inside the sphere.
+     * Thin hollow spheres reject most draws, so sampling falls back to visiting the shape once the attempts run out,
+     * as does picking most of the sphere, where duplicate draws pile up.
+     * Whether most of the sphere is picked is decided from its cached mask or its analytic volume,
+     * the exact {@link #count} is only taken when that says it might be.
+     */
+    @Override
+    public List<BlockPos> sample(Outcome.Context context, int count) {
+        Vec3d size = resolveSize(context);
+        double inner = getInnerDistance(size);
+        int minX = (int) Math.round(-size.x) + 1;
+        int minY = (int) Math.round(-size.y) + 1;
+        int minZ = (int) Math.round(-size.z) + 1;
+        int spanX = (int) Math.round(size.x) - minX;
+        int spanY = (int) Math.round(size.y) - minY;
+        int spanZ = (int) Math.round(size.z) - minZ;
+        if (count <= 0 || spanX <= 0 || spanY <= 0 || spanZ <= 0)
+            return List.of();
+
+        int total = ShapeMask.getCachedSize(this, size, hollow);
+        if (total < 0 && count > getVolume(size, inner) / 2d)
+            total = count(size);
+        if (total == 0)
+            return List.of();
+        if (total > 0 && count > total / 2)
+            return sampleVisited(context.random(), count, visitor -> ShapeMask.forEach(this, size, hollow, this::generate, visitor));
+
+        Random random = context.random();
+        LongSet picked = new LongOpenHashSet(count);
+        List<BlockPos> positions = new ArrayList<>(count);
+        for (long attempts = MAX_ATTEMPTS_PER_POSITION * (long) count; attempts > 0 && positions.size() < count; --attempts) {
+            int x = minX + random.nextInt(spanX);
+            int y = minY + random.nextInt(spanY);
+            int z = minZ + random.nextInt(spanZ);
+            if (contains(x, y, z, size, inner) && picked.add(BlockPos.asLong(x, y, z)))
+                positions.add(new BlockPos(x, y, z));
+        }
+        if (positions.size() < count)
+            return sampleVisited(random, count, visitor -> ShapeMask.forEach(this, size, hollow, this::generate, visitor));
         return positions;
     }
 
+    /**
+     * @return the volume of the ellipsoid, less the inner one when hollow
+     */
+    private static double getVolume(Vec3d size, double inner) {
+        double volume = 4d / 3d * Math.PI * size.x * size.y * size.z;
+        return inner > 0d ? volume * (1d - Math.pow(inner, 1.5d)) : volume;
+    }
+
+    private double getInnerDistance(Vec3d size) {
+        return hollow ? Math.pow(1 - 1d / Math.max(size.x, Math.max(size.y, size.z)), 2) : Double.NEGATIVE_INFINITY;
+    }
+
+    private static double getDistance(int x, int y, int z, Vec3d size) {
+        double normalizedX = x / size.x;
+        double normalizedY = y / size.y;
+        double normalizedZ = z / size.z;
+        return normalizedX * normalizedX + normalizedY * normalizedY + normalizedZ * normalizedZ;
+    }
+
+    private static boolean contains(int x, int y, int z, Vec3d size, double inner) {
+        double distance2 = getDistance(x, y, z, size);
+        return distance2 <= 1d && distance2 >= inner;
+    }
+
     @Override
     public List<Vec3d> getVecPositions(Outcome.Context context) {
         return List.of();
@@ -11,6 +11,7 @@ import net.minecraft.util.math.Vec3d;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 public class Triangle extends Shape {
@@ -27,9 +28,12 @@ public class Triangle extends Shape {
     }
 
     @Override
-    public List<BlockPos> getBlockPositions(Outcome.Context context) {
-        List<BlockPos> positions = new ArrayList<>();
-        Vec3d size = this.size.getVec(context);
+    public void forEachBlock(Outcome.Context context, Consumer<BlockPos> visitor) {
+        ShapeMask.forEach(this, resolveSize(context), type, this::generate, visitor);
+    }
+
+    void generate(Vec3d size, Consumer<BlockPos> visitor) {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
 
         if (type == Type.POINT) {
             for (int y = 0; y < size.y; y++) {
@@ -41,7 +45,7 @@ public class Triangle extends Shape {
 
                 for (int z = -halfDepth; z <= halfDepth; z++) {
                     for (int x = -halfWidth; x <= halfWidth; x++) {
-                        positions.add(new BlockPos(x, y, z));
+                        visitor.accept(pos.set(x, y, z));
                     }
                 }
             }
@@ -50,7 +54,7 @@ public class Triangle extends Shape {
                 for (int y = 0; y < size.y; y++) {
                     int width = ((int) size.y) - y;
                     for (int x = 0; x < width; x++) {
-                        positions.add(new BlockPos(x, y, z));
+                        visitor.accept(pos.set(x, y, z));
                     }
                 }
             }
@@ -59,14 +63,104 @@ public class Triangle extends Shape {
                 for (int y = 0; y < size.y; y++) {
                     int halfWidth = (int) (size.y / 2) - y;
                     for (int x = -halfWidth; x <= halfWidth; x++) {
-                        positions.add(new BlockPos(x, y, z));
+                        visitor.accept(pos.set(x, y, z));
                     }
                 }
             }
         }
+    }
+
+    @Override
+    public int count(Outcome.Context context) {
+        return count(this.size.getVec(context));
+    }
+
+    int count(Vec3d size) {
+        if (type == Type.POINT) {
+            int count = 0;
+            for (int y = 0; y < size.y; y++) {
+                int halfWidth = (int) (size.y / 2) - y;
+                int halfDepth = ((int) size.z / 2) - y;
+
+                if (halfWidth < 0 || halfDepth < 0)
+                    break;
+
+                count += (2 * halfWidth + 1) * (2 * halfDepth + 1);
+            }
+            return count;
+        }
+
+        return getSliceCount(size) * Math.max((int) Math.ceil(size.z), 0);
+    }
+
+    /**
+     * @return the number of positions in each z slice of a side or middle triangle
+     */
+    int getSliceCount(Vec3d size) {
+        int count = 0;
+        for (int y = 0; y < size.y; y++) {
+            count += getRowWidth(size, y);
+        }
+        return count;
+    }
+
+    private int getRowWidth(Vec3d size, int y) {
+        if (type == Type.SIDE)
+            return Math.max((int) size.y - y, 0);
+        return Math.max(2 * ((int) (size.y / 2) - y) + 1, 0);
+    }
+
+    /**
+     * Decodes each picked index by walking the row sizes, without visiting the positions in between.
+     */
+    @Override
+    public List<BlockPos> sample(Outcome.Context context, int count) {
+        Vec3d size = resolveSize(context);
+        int total = count(size);
+        if (count <= 0 || total <= 0)
+            return List.of();
+
+        int slice = type == Type.POINT ? 0 : getSliceCount(size);
+        List<BlockPos> positions = new ArrayList<>(Math.min(count, total));
+        for (int index : pickIndices(context.random(), total, Math.min(count, total))) {
+            positions.add(decode(size, slice, index));
+        }
         return positions;
     }
 
+    /**
+     * @param slice the number of positions in each z slice, unused for point triangles
+     * @return the position {@link #forEachBlock} visits at the index
+     */
+    BlockPos decode(Vec3d size, int slice, int index) {
+        return type == Type.POINT ? decodePoint(size, index) : decodeSlice(size, slice, index);
+    }
+
+    private static BlockPos decodePoint(Vec3d size, int index) {
+        for (int y = 0; y < size.y; y++) {
+            int halfWidth = (int) (size.y / 2) - y;
+            int halfDepth = ((int) size.z / 2) - y;
+            int width = 2 * halfWidth + 1;
+            int layer = width * (2 * halfDepth + 1);
+            if (index < layer)
+                return new BlockPos(index % width - halfWidth, y, index / width - halfDepth);
+            index -= layer;
+        }
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    private BlockPos decodeSlice(Vec3d size, int slice, int index) {
+        int z = index / slice;
+        index %= slice;
+        for (int y = 0; y < size.y; y++) {
+            int width = getRowWidth(size, y);
+            if (index < width)
+                return new BlockPos(type == Type.SIDE ? index : index - ((int) (size.y / 2) - y), y, z);
+            index -= width;
+        }
+        throw new IndexOutOfBoundsException(index);
+    }
+
     @Override
     public List<Vec3d> getVecPositions(Outcome.Context context) {
         return List.of();
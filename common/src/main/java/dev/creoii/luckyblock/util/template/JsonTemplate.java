@@ -0,0 +1,145 @@
+package dev.creoii.luckyblock.util.template;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import dev.creoii.luckyblock.outcome.Outcome;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * A json tree compiled once, where every string value is a {@link StringTemplate}.
+ * Constant subtrees are shared between renders, so only the nodes that depend on the context are rebuilt.
+ * <p>
+ * Strings that render to a single number become json numbers, except for block state {@code Properties}.
+ */
+public final class JsonTemplate {
+    private static final String PROPERTIES_KEY = "Properties";
+    private final Node root;
+
+    private JsonTemplate(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a string references an unknown parameter or contains an invalid expression
+     */
+    public static JsonTemplate compile(JsonElement element) {
+        return new JsonTemplate(compile(element, false));
+    }
+
+    /**
+     * @param properties whether the element is, or is inside of, a block state {@code Properties} object
+     */
+    private static Node compile(JsonElement element, boolean properties) {
+        if (element.isJsonObject()) {
+            Map<String, JsonElement> map = element.getAsJsonObject().asMap();
+            StringTemplate[] keys = new StringTemplate[map.size()];
+            Node[] values = new Node[map.size()];
+            boolean constant = true;
+            int i = 0;
+            for (Map.Entry<String, JsonElement> entry : map.entrySet()) {
+                keys[i] = StringTemplate.compile(entry.getKey());
+                values[i] = compile(entry.getValue(), properties || PROPERTIES_KEY.equals(entry.getKey()));
+                constant &= keys[i].isConstant() && values[i] instanceof ConstantNode;
+                ++i;
+            }
+            ObjectNode node = new ObjectNode(keys, values);
+            return constant ? new ConstantNode(node.render(null, new StringBuilder())) : node;
+        } else if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            Node[] elements = new Node[array.size()];
+            boolean constant = true;
+            for (int i = 0; i < elements.length; ++i) {
+                elements[i] = compile(array.get(i), properties);
+                constant &= elements[i] instanceof ConstantNode;
+            }
+            ArrayNode node = new ArrayNode(elements);
+            return constant ? new ConstantNode(node.render(null, new StringBuilder())) : node;
+        } else if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isString()) {
+            StringTemplate template = StringTemplate.compile(element.getAsString());
+            if (template.isConstant()) {
+                String value = template.render(null);
+                BigDecimal number = properties ? null : parseNumber(value);
+                return new ConstantNode(number != null ? new JsonPrimitive(number) : new JsonPrimitive(value));
+            }
+            return new StringNode(template, !properties && template.isNumeric());
+        }
+        return new ConstantNode(element);
+    }
+
+    /**
+     * @return the value as a number if it only consists of digits, dots and minus signs
+     */
+    @Nullable
+    private static BigDecimal parseNumber(String value) {
+        if (value.isEmpty())
+            return null;
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c != '-' && c != '.' && !Character.isDigit(c))
+                return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public boolean isConstant() {
+        return root instanceof ConstantNode;
+    }
+
+    public JsonElement render(@Nullable Outcome.Context context) {
+        return root.render(context, new StringBuilder());
+    }
+
+    private sealed interface Node permits ConstantNode, StringNode, ArrayNode, ObjectNode {
+        JsonElement render(@Nullable Outcome.Context context, StringBuilder buffer);
+    }
+
+    private record ConstantNode(JsonElement value) implements Node {
+        @Override
+        public JsonElement render(@Nullable Outcome.Context context, StringBuilder buffer) {
+            return value;
+        }
+    }
+
+    private record StringNode(StringTemplate template, boolean numeric) implements Node {
+        @Override
+        public JsonElement render(@Nullable Outcome.Context context, StringBuilder buffer) {
+            if (numeric) {
+                return new JsonPrimitive(template.renderNumber(context));
+            }
+            buffer.setLength(0);
+            template.render(context, buffer);
+            return new JsonPrimitive(buffer.toString());
+        }
+    }
+
+    private record ArrayNode(Node[] elements) implements Node {
+        @Override
+        public JsonElement render(@Nullable Outcome.Context context, StringBuilder buffer) {
+            JsonArray array = new JsonArray(elements.length);
+            for (Node element : elements) {
+                array.add(element.render(context, buffer));
+            }
+            return array;
+        }
+    }
+
+    private record ObjectNode(StringTemplate[] keys, Node[] values) implements Node {
+        @Override
+        public JsonElement render(@Nullable Outcome.Context context, StringBuilder buffer) {
+            JsonObject object = new JsonObject();
+            for (int i = 0; i < keys.length; ++i) {
+                object.add(keys[i].render(context), values[i].render(context, buffer));
+            }
+            return object;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package dev.creoii.luckyblock.util.template;
+
+import com.ezylang.evalex.Expression;
+import dev.creoii.luckyblock.outcome.Outcome;
+import dev.creoii.luckyblock.util.FunctionUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A pre-parsed math expression over numbers and numeric parameters, evaluated in plain doubles.
+ * Expressions are cached by their unsubstituted shape (e.g. {@code blockPosY+25}) and bind their parameters
+ * to the context on every evaluation. Anything outside of the four-operator grammar falls back to EvalEx.
+ */
+public abstract class MathExpression {
+    private static final Map<String, MathExpression> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * @param shape the expression, with parameters written as bare names
+     * @throws IllegalArgumentException if the expression cannot be parsed
+     */
+    public static MathExpression compile(String shape) {
+        MathExpression cached = CACHE.get(shape);
+        if (cached != null)
+            return cached;
+
+        MathExpression expression = parse(shape);
+        // constant expressions are folded by their callers, only shapes with parameters are worth keeping
+        if (!expression.isConstant())
+            CACHE.putIfAbsent(shape, expression);
+        return expression;
+    }
+
+    private static MathExpression parse(String shape) {
+        try {
+            return new Parser(shape).parse();
+        } catch (IllegalArgumentException e) {
+            return EvalExExpression.create(shape);
+        }
+    }
+
+    public abstract double evaluate(@Nullable Outcome.Context context);
+
+    public abstract boolean isConstant();
+
+    /**
+     * Appends the value without a trailing {@code .0} when it is a whole number.
+     */
+    public static void append(double value, StringBuilder buffer) {
+        if (isWhole(value)) {
+            buffer.append((long) value);
+        } else buffer.append(value);
+    }
+
+    /**
+     * @return the value as a {@link Long} when it is a whole number, so it renders without a trailing {@code .0}
+     */
+    public static Number toNumber(double value) {
+        if (isWhole(value))
+            return (long) value;
+        return value;
+    }
+
+    private static boolean isWhole(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15;
+    }
+
+    private static final class Parser {
+        private final String source;
+        private int index;
+
+        private Parser(String source) {
+            this.source = source;
+        }
+
+        private MathExpression parse() {
+            MathExpression expression = parseSum();
+            if (index != source.length())
+                throw new IllegalArgumentException("Unexpected character at " + index + " in '" + source + "'");
+            return expression;
+        }
+
+        private MathExpression parseSum() {
+            MathExpression left = parseProduct();
+            while (index < source.length()) {
+                char c = source.charAt(index);
+                if (c != '+' && c != '-')
+                    break;
+                ++index;
+                left = Binary.create(c, left, parseProduct());
+            }
+            return left;
+        }
+
+        private MathExpression parseProduct() {
+            MathExpression left = parseUnary();
+            while (index < source.length()) {
+                char c = source.charAt(index);
+                if (c != '*' && c != '/')
+                    break;
+                ++index;
+                left = Binary.create(c, left, parseUnary());
+            }
+            return left;
+        }
+
+        private MathExpression parseUnary() {
+            if (index < source.length() && source.charAt(index) == '-') {
+                ++index;
+                MathExpression operand = parseUnary();
+                if (operand instanceof Constant constant)
+                    return new Constant(-constant.value);
+                return new Negate(operand);
+            }
+            return parseOperand();
+        }
+
+        private MathExpression parseOperand() {
+            int start = index;
+            if (index < source.length() && Character.isDigit(source.charAt(index))) {
+                while (index < source.length() && (Character.isDigit(source.charAt(index)) || source.charAt(index) == '.')) {
+                    ++index;
+                }
+                try {
+                    return new Constant(Double.parseDouble(source.substring(start, index)));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid number '" + source.substring(start, index) + "'");
+                }
+            }
+
+            while (index < source.length() && (Character.isLetterOrDigit(source.charAt(index)) || source.charAt(index) == '_')) {
+                ++index;
+            }
+            if (start == index)
+                throw new IllegalArgumentException("Expected an operand at " + index + " in '" + source + "'");
+
+            String name = source.substring(start, index);
+            if (!FunctionUtils.isNumericParam(name))
+                throw new IllegalArgumentException("Param '" + name + "' is not numeric");
+            return new Variable(name, FunctionUtils.getParam(name));
+        }
+    }
+
+    private static final class Constant extends MathExpression {
+        private final double value;
+
+        private Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double evaluate(@Nullable Outcome.Context context) {
+            return value;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+    }
+
+    private static final class Variable extends MathExpression {
+        private final String name;
+        private final Function<Outcome.Context, ?> getter;
+
+        private Variable(String name, Function<Outcome.Context, ?> getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+
+        @Override
+        public double evaluate(@Nullable Outcome.Context context) {
+            if (context == null)
+                throw new IllegalArgumentException("Param '" + name + "' requires a context");
+            return ((Number) getter.apply(context)).doubleValue();
+        }
+
+        @Override
+        public boolean isConstant() {
+            return false;
+        }
+    }
+
+    private static final class Negate extends MathExpression {
+        private final MathExpression operand;
+
+        private Negate(MathExpression operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public double evaluate(@Nullable Outcome.Context context) {
+            return -operand.evaluate(context);
+        }
+
+        @Override
+        public boolean isConstant() {
+            return false;
+        }
+    }
+
+    private static final class Binary extends MathExpression {
+        private final char operator;
+        private final MathExpression left;
+        private final MathExpression right;
+
+        private Binary(char operator, MathExpression left, MathExpression right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        private static MathExpression create(char operator, MathExpression left, MathExpression right) {
+            Binary binary = new Binary(operator, left, right);
+            if (left.isConstant() && right.isConstant()) {
+                // a division by zero is left to fail once rendered, like any other invalid expression
+                double value = binary.evaluate(null);
+                if (Double.isFinite(value))
+                    return new Constant(value);
+            }
+            return binary;
+        }
+
+        @Override
+        public double evaluate(@Nullable Outcome.Context context) {
+            double a = left.evaluate(context);
+            double b = right.evaluate(context);
+            return switch (operator) {
+                case '+' -> a + b;
+                case '-' -> a - b;
+                case '*' -> a * b;
+                default -> a / b;
+            };
+        }
+
+        @Override
+        public boolean isConstant() {
+            return false;
+        }
+    }
+
+    private static final class EvalExExpression extends MathExpression {
+        private final Expression expression;
+        private final String[] variables;
+        private final List<Function<Outcome.Context, ?>> getters;
+
+        private EvalExExpression(Expression expression, String[] variables, List<Function<Outcome.Context, ?>> getters) {
+            this.expression = expression;
+            this.variables = variables;
+            this.getters = getters;
+        }
+
+        private static EvalExExpression create(String shape) {
+            Expression expression = new Expression(shape);
+            List<String> variables = new ArrayList<>();
+            List<Function<Outcome.Context, ?>> getters = new ArrayList<>();
+            try {
+                for (String variable : expression.getUndefinedVariables()) {
+                    variables.add(variable);
+                    getters.add(FunctionUtils.getParam(variable));
+                }
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Error parsing math expression: " + shape, e);
+            }
+            return new EvalExExpression(expression, variables.toArray(new String[0]), getters);
+        }
+
+        @Override
+        public double evaluate(@Nullable Outcome.Context context) {
+            synchronized (expression) {
+                try {
+                    for (int i = 0; i < variables.length; ++i) {
+                        expression.with(variables[i], getters.get(i).apply(context));
+                    }
+                    return expression.evaluate().getNumberValue().doubleValue();
+                } catch (Exception e) {
+                    throw new IllegalArgumentException("Error evaluating math expression: " + expression.getExpressionString(), e);
+                }
+            }
+        }
+
+        @Override
+        public boolean isConstant() {
+            return variables.length == 0;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package dev.creoii.luckyblock.util.template;
+
+import dev.creoii.luckyblock.outcome.Outcome;
+import dev.creoii.luckyblock.util.FunctionUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A string tokenized once into literal text, parameter lookups and pre-parsed {@link MathExpression}s.
+ * Rendering walks the segments in a single pass and never touches a regex.
+ */
+public final class StringTemplate {
+    private final String source;
+    private final Segment[] segments;
+
+    private StringTemplate(String source, Segment[] segments) {
+        this.source = source;
+        this.segments = segments;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the string references an unknown parameter or contains an invalid expression
+     */
+    public static StringTemplate compile(String source) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < source.length()) {
+            int end = matchExpression(source, i);
+            if (end > i) {
+                ExpressionSegment expression = ExpressionSegment.compile(source.substring(i, end));
+                if (expression.isConstant()) {
+                    MathExpression.append(expression.evaluate(null), literal);
+                } else {
+                    flushLiteral(segments, literal);
+                    segments.add(expression);
+                }
+                i = end;
+                continue;
+            }
+
+            end = matchParam(source, i);
+            if (end > i) {
+                flushLiteral(segments, literal);
+                String name = source.substring(i + 1, end - 1);
+                segments.add(new ParamSegment(name, FunctionUtils.getParam(name)));
+                i = end;
+                continue;
+            }
+
+            literal.append(source.charAt(i++));
+        }
+        flushLiteral(segments, literal);
+        return new StringTemplate(source, segments.toArray(new Segment[0]));
+    }
+
+    private static void flushLiteral(List<Segment> segments, StringBuilder literal) {
+        if (!literal.isEmpty()) {
+            segments.add(new LiteralSegment(literal.toString()));
+            literal.setLength(0);
+        }
+    }
+
+    /**
+     * Matches an optionally negated chain of operands joined by {@code +}, {@code -}, {@code *} or {@code /},
+     * where an operand is a number or a numeric parameter.
+     * A single negated parameter is matched as well, so {@code -{blockPosX}} still renders as a number.
+     * @return the end index of the expression, or -1 if none starts at {@code start}
+     */
+    private static int matchExpression(String source, int start) {
+        int i = start;
+        boolean negated = false;
+        if (i < source.length() && source.charAt(i) == '-') {
+            negated = true;
+            ++i;
+        }
+
+        int end = matchOperand(source, i);
+        if (end < 0)
+            return -1;
+        boolean paramOperand = source.charAt(i) == '{';
+
+        int operators = 0;
+        while (end < source.length() && isOperator(source.charAt(end))) {
+            int next = matchOperand(source, end + 1);
+            if (next < 0)
+                break;
+            end = next;
+            ++operators;
+        }
+
+        if (operators > 0 || (negated && paramOperand))
+            return end;
+        return -1;
+    }
+
+    private static int matchOperand(String source, int start) {
+        if (start >= source.length())
+            return -1;
+
+        if (source.charAt(start) == '{') {
+            int end = matchParam(source, start);
+            if (end < 0 || !FunctionUtils.isNumericParam(source.substring(start + 1, end - 1)))
+                return -1;
+            return end;
+        }
+
+        int i = start;
+        while (i < source.length() && Character.isDigit(source.charAt(i))) {
+            ++i;
+        }
+        if (i == start)
+            return -1;
+
+        if (i + 1 < source.length() && source.charAt(i) == '.' && Character.isDigit(source.charAt(i + 1))) {
+            i += 2;
+            while (i < source.length() && Character.isDigit(source.charAt(i))) {
+                ++i;
+            }
+        }
+        return i;
+    }
+
+    private static int matchParam(String source, int start) {
+        if (source.charAt(start) != '{')
+            return -1;
+
+        int i = start + 1;
+        while (i < source.length() && isWordChar(source.charAt(i))) {
+            ++i;
+        }
+        if (i == start + 1 || i >= source.length() || source.charAt(i) != '}')
+            return -1;
+        return i + 1;
+    }
+
+    private static boolean isOperator(char c) {
+        return c == '*' || c == '/' || c == '+' || c == '-';
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean isConstant() {
+        for (Segment segment : segments) {
+            if (!(segment instanceof LiteralSegment))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the template is a single numeric parameter or expression, and so renders to a number
+     */
+    public boolean isNumeric() {
+        return segments.length == 1 && (segments[0] instanceof ExpressionSegment || (segments[0] instanceof ParamSegment param && FunctionUtils.isNumericParam(param.name())));
+    }
+
+    /**
+     * Expressions that evaluate to a whole number render as a {@link Long}, parameters keep their own type.
+     */
+    public Number renderNumber(@Nullable Outcome.Context context) {
+        if (segments[0] instanceof ExpressionSegment expression) {
+            return MathExpression.toNumber(expression.evaluate(context));
+        }
+        return (Number) ((ParamSegment) segments[0]).getter().apply(context);
+    }
+
+    public String render(@Nullable Outcome.Context context) {
+        if (segments.length == 1 && segments[0] instanceof LiteralSegment literal) {
+            return literal.text();
+        }
+        StringBuilder buffer = new StringBuilder(source.length() + 16);
+        render(context, buffer);
+        return buffer.toString();
+    }
+
+    public void render(@Nullable Outcome.Context context, StringBuilder buffer) {
+        for (Segment segment : segments) {
+            segment.append(context, buffer);
+        }
+    }
+
+    private sealed interface Segment permits LiteralSegment, ParamSegment, ExpressionSegment {
+        void append(@Nullable Outcome.Context context, StringBuilder buffer);
+    }
+
+    private record LiteralSegment(String text) implements Segment {
+        @Override
+        public void append(@Nullable Outcome.Context context, StringBuilder buffer) {
+            buffer.append(text);
+        }
+    }
+
+    private record ParamSegment(String name, Function<Outcome.Context, ?> getter) implements Segment {
+        @Override
+        public void append(@Nullable Outcome.Context context, StringBuilder buffer) {
+            buffer.append(getter.apply(context));
+        }
+    }
+
+    private record ExpressionSegment(String source, MathExpression expression) implements Segment {
+        static ExpressionSegment compile(String source) {
+            StringBuilder shape = new StringBuilder(source.length());
+            int i = 0;
+            while (i < source.length()) {
+                int end = matchParam(source, i);
+                if (end > i) {
+                    shape.append(source, i + 1, end - 1);
+                    i = end;
+                } else shape.append(source.charAt(i++));
+            }
+            return new ExpressionSegment(source, MathExpression.compile(shape.toString()));
+        }
+
+        boolean isConstant() {
+            return expression.isConstant();
+        }
+
+        /**
+         * @throws IllegalArgumentException if the result is not finite, such as after a division by zero
+         */
+        double evaluate(@Nullable Outcome.Context context) {
+            double value = expression.evaluate(context);
+            if (!Double.isFinite(value))
+                throw new IllegalArgumentException("Error evaluating math expression: " + source);
+            return value;
+        }
+
+        @Override
+        public void append(@Nullable Outcome.Context context, StringBuilder buffer) {
+            MathExpression.append(evaluate(context), buffer);
+        }
+    }
+}
@@ -10,7 +10,6 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.intprovider.IntProvider;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,14 +35,17 @@ public class RandomInShapeVecProvider extends VecProvider {
         return getPos(context).toCenterPos();
     }
 
+    /**
+     * Only the picked position is located, the shape is never collected into a list.
+     */
     @Override
     public BlockPos getPos(Outcome.Context context) {
-        List<BlockPos> positions = shape.getBlockPositions(context);
+        List<BlockPos> positions = shape.sample(context, 1);
         if (positions.isEmpty()) {
             return ConstantVecProvider.ZERO.getPos(context);
         }
         BlockPos center = this.center.isPresent() ? this.center.get().getPos(context) : context.pos();
-        return positions.get(context.world().getRandom().nextInt(positions.size())).add(center);
+        return positions.getFirst().add(center);
     }
 
     @Override
@@ -51,25 +53,22 @@ public class RandomInShapeVecProvider extends VecProvider {
         return getPositions(context).stream().map(BlockPos::toCenterPos).toList();
     }
 
+    /**
+     * Picks {@code count} distinct positions of the shape, or every position if the shape is smaller than that.
+     */
     @Override
     public List<BlockPos> getPositions(Outcome.Context context) {
-        List<BlockPos> positions = shape.getBlockPositions(context);
+        List<BlockPos> positions = shape.sample(context, this.count.get(context.random()));
         if (positions.isEmpty()) {
             return List.of(ConstantVecProvider.ZERO.getPos(context));
         }
         BlockPos center = this.center.isPresent() ? this.center.get().getPos(context) : context.pos();
 
-        int count = this.count.get(context.world().getRandom());
-        if (count > 1) {
-            List<BlockPos> result = new ArrayList<>();
-            Collections.shuffle(positions);
-            for (int i = 0; i < count; ++i) {
-                result.add(positions.get(i));
-            }
-            return result;
+        List<BlockPos> result = new ArrayList<>(positions.size());
+        for (BlockPos pos : positions) {
+            result.add(pos.add(center));
         }
-
-        return List.of(positions.get(context.world().getRandom().nextInt(positions.size())).add(center));
+        return result;
     }
 
     @Override
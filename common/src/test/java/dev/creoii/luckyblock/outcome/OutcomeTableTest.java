@@ -0,0 +1,92 @@
+package dev.creoii.luckyblock.outcome;
+
+import net.minecraft.util.math.random.LocalRandom;
+import net.minecraft.util.math.random.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OutcomeTableTest {
+    private static final int[] LUCK = {-100, -40, -10, 0, 0, 0, 5, 20, 35, 80};
+    private static final double[] CHANCE = {1d, .5d, 2d, 1d, 1d, 3d, .25d, 1d, 1.5d, 1d};
+
+    /**
+     * The selection weights of the linear scan the alias table replaced.
+     */
+    private static double[] getBaselineProbabilities(int[] luck, double[] chance, int blockLuck) {
+        int lowest = 0, highest = 0;
+        for (int outcomeLuck : luck) {
+            if (outcomeLuck < lowest)
+                lowest = outcomeLuck;
+            if (outcomeLuck > highest)
+                highest = outcomeLuck;
+        }
+        highest += -1 * lowest + 1;
+
+        double totalWeight = 0d;
+        double[] weights = new double[luck.length];
+        for (int i = 0; i < luck.length; ++i) {
+            int outcomeLuck = luck[i] + (-1 * lowest) + 1;
+            double adjusted = Math.pow(1d / (1d - Math.abs(blockLuck) * .77d / 100d), blockLuck >= 0 ? outcomeLuck : highest + 1 - outcomeLuck);
+            totalWeight += weights[i] = (chance[i] > 0d ? chance[i] : 1d) * adjusted * 100;
+        }
+
+        for (int i = 0; i < weights.length; ++i) {
+            weights[i] /= totalWeight;
+        }
+        return weights;
+    }
+
+    @Test
+    void aliasTableMatchesBaselineWeights() {
+        OutcomeTable table = OutcomeTable.of(LUCK, CHANCE);
+        for (int blockLuck = OutcomeTable.MIN_LUCK; blockLuck <= OutcomeTable.MAX_LUCK; ++blockLuck) {
+            double[] expected = getBaselineProbabilities(LUCK, CHANCE, blockLuck);
+            for (int i = 0; i < LUCK.length; ++i) {
+                assertEquals(expected[i], table.getProbability(i, blockLuck), 1e-12, "outcome " + i + " at luck " + blockLuck);
+            }
+        }
+    }
+
+    @Test
+    void positiveLuckOnlyTableMatchesBaselineWeights() {
+        int[] luck = {0, 1, 2, 3};
+        double[] chance = {1d, 1d, 1d, 1d};
+        OutcomeTable table = OutcomeTable.of(luck, chance);
+        for (int blockLuck : new int[]{-100, -1, 0, 1, 50, 100}) {
+            double[] expected = getBaselineProbabilities(luck, chance, blockLuck);
+            for (int i = 0; i < luck.length; ++i) {
+                assertEquals(expected[i], table.getProbability(i, blockLuck), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void singleOutcomeIsAlwaysSampled() {
+        OutcomeTable table = OutcomeTable.of(new int[]{7}, new double[]{1d});
+        Random random = new LocalRandom(0L);
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(0, table.sample(random, 25));
+        }
+        assertEquals(1d, table.getProbability(0, 25), 1e-12);
+    }
+
+    @Test
+    void sampleFrequenciesFollowWeights() {
+        OutcomeTable table = OutcomeTable.of(LUCK, CHANCE);
+        Random random = new LocalRandom(42L);
+        int samples = 400_000;
+        for (int blockLuck : new int[]{-80, 0, 80}) {
+            int[] hits = new int[LUCK.length];
+            for (int i = 0; i < samples; ++i) {
+                ++hits[table.sample(random, blockLuck)];
+            }
+
+            double[] expected = getBaselineProbabilities(LUCK, CHANCE, blockLuck);
+            for (int i = 0; i < LUCK.length; ++i) {
+                double error = 5d * Math.sqrt(expected[i] * (1d - expected[i]) / samples);
+                assertEquals(expected[i], (double) hits[i] / samples, error + 1e-4, "outcome " + i + " at luck " + blockLuck);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package dev.creoii.luckyblock.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+    private static final long MAX_VALUE = 1L << 41;
+
+    @Test
+    void smallValuesHaveTheirOwnBucket() {
+        for (int value = 0; value < 16; ++value) {
+            assertEquals(value, LatencyHistogram.indexOf(value));
+            assertEquals(value, LatencyHistogram.highestOf(value));
+        }
+    }
+
+    @Test
+    void bucketsAreContiguous() {
+        int previous = LatencyHistogram.indexOf(0L);
+        for (long value = 1L; value < 1L << 20; ++value) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index == previous || index == previous + 1, "value " + value);
+            if (index != previous)
+                assertEquals(value - 1L, LatencyHistogram.highestOf(previous), "value " + value);
+            previous = index;
+        }
+    }
+
+    @Test
+    void bucketBoundsAreWithinOneSixteenth() {
+        SplittableRandom random = new SplittableRandom(0L);
+        for (int i = 0; i < 100_000; ++i) {
+            long value = random.nextLong(MAX_VALUE);
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index >= 0 && index < LatencyHistogram.BUCKETS);
+            long highest = LatencyHistogram.highestOf(index);
+            assertTrue(highest >= value, "value " + value);
+            assertTrue(highest - value <= value / 16L, "value " + value);
+        }
+    }
+
+    @Test
+    void largeValuesLandInTheLastBucket() {
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf((1L << 41) + 5L));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf((1L << 41) - 1L));
+    }
+
+    @Test
+    void percentilesMatchExactValues() {
+        SplittableRandom random = new SplittableRandom(1L);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[50_000];
+        for (int i = 0; i < values.length; ++i) {
+            // log-uniform between 1 microsecond and 1 second
+            values[i] = (long) Math.pow(10d, 3d + random.nextDouble() * 6d);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{1d, 50d, 90d, 99d, 99.9d, 100d}) {
+            long exact = values[(int) Math.max(Math.ceil(percentile / 100d * values.length), 1d) - 1];
+            long estimate = histogram.getPercentile(percentile);
+            assertTrue(estimate >= exact && estimate - exact <= exact / 16L, percentile + "th percentile " + estimate + " for " + exact);
+        }
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values[values.length - 1], histogram.getPercentile(100d));
+    }
+
+    @Test
+    void emptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getPercentile(50d));
+        assertEquals(0d, histogram.getMean());
+        histogram.record(42L);
+        histogram.reset();
+        assertEquals(0L, histogram.getCount());
+        assertEquals(0L, histogram.getPercentile(99d));
+    }
+}
@@ -0,0 +1,50 @@
+package dev.creoii.luckyblock.util.shape;
+
+import dev.creoii.luckyblock.util.vec.ConstantVecProvider;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CubeTest {
+    private static final double[] SIZES = {.5d, 1d, 1.5d, 2d, 2.5d, 3d, 4d, 5.5d, 7d};
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+
+    private static List<BlockPos> generate(Cube cube, Vec3d size) {
+        List<BlockPos> positions = new ArrayList<>();
+        cube.generate(size, pos -> positions.add(pos.toImmutable()));
+        return positions;
+    }
+
+    @Test
+    void countAndDecodeMatchGenerate() {
+        for (boolean hollow : new boolean[]{false, true}) {
+            Cube cube = new Cube(ConstantVecProvider.ZERO, hollow);
+            for (double x : SIZES) {
+                for (double y : SIZES) {
+                    for (double z : SIZES) {
+                        Vec3d size = new Vec3d(x, y, z);
+                        BlockPos to = Cube.getTo(size);
+                        List<BlockPos> positions = generate(cube, size);
+                        assertEquals(positions.size(), cube.count(to), size + (hollow ? " hollow" : ""));
+                        for (int i = 0; i < positions.size(); ++i) {
+                            assertEquals(positions.get(i), cube.decode(to, i), size + (hollow ? " hollow" : "") + " index " + i);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
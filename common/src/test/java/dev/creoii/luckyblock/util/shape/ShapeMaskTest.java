@@ -0,0 +1,120 @@
+package dev.creoii.luckyblock.util.shape;
+
+import dev.creoii.luckyblock.util.LuckyBlockCodecs;
+import dev.creoii.luckyblock.util.vec.ConstantVecProvider;
+import dev.creoii.luckyblock.util.vec.RandomVecProvider;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import org.apache.commons.lang3.mutable.MutableInt;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ShapeMaskTest {
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+
+    private static final Shape CONSTANT = new Sphere(ConstantVecProvider.ZERO, false);
+
+    private static List<BlockPos> visit(Vec3d size, Object variant, BiConsumer<Vec3d, Consumer<BlockPos>> generator) {
+        return visit(CONSTANT, size, variant, generator);
+    }
+
+    private static List<BlockPos> visit(Shape shape, Vec3d size, Object variant, BiConsumer<Vec3d, Consumer<BlockPos>> generator) {
+        List<BlockPos> positions = new ArrayList<>();
+        ShapeMask.forEach(shape, size, variant, generator, pos -> positions.add(pos.toImmutable()));
+        return positions;
+    }
+
+    private static BiConsumer<Vec3d, Consumer<BlockPos>> counting(MutableInt generated, int positions) {
+        return (s, visitor) -> {
+            generated.increment();
+            BlockPos.Mutable pos = new BlockPos.Mutable();
+            for (int i = 0; i < positions; ++i) {
+                visitor.accept(pos.set(i, 0, 0));
+            }
+        };
+    }
+
+    @Test
+    void cachedMaskDecodesToTheGeneratedPositions() {
+        Sphere sphere = new Sphere(ConstantVecProvider.ZERO, true);
+        Vec3d size = new Vec3d(6.5d, 4d, 5.5d);
+        MutableInt generated = new MutableInt();
+        BiConsumer<Vec3d, Consumer<BlockPos>> generator = (s, visitor) -> {
+            generated.increment();
+            sphere.generate(s, visitor);
+        };
+
+        Object variant = new Object();
+        List<BlockPos> first = visit(size, variant, generator);
+        List<BlockPos> second = visit(size, variant, generator);
+        assertEquals(1, generated.intValue());
+        assertEquals(first, second);
+
+        List<BlockPos> expected = new ArrayList<>();
+        sphere.generate(size, pos -> expected.add(pos.toImmutable()));
+        assertEquals(expected, second);
+    }
+
+    @Test
+    void extremeCoordinatesSurvivePacking() {
+        List<BlockPos> expected = List.of(new BlockPos(0, 0, 0), new BlockPos(-1, -1, -1), new BlockPos(-33554432, -2048, 33554431), new BlockPos(33554431, 2047, -33554432), new BlockPos(12345, -678, -9));
+        BiConsumer<Vec3d, Consumer<BlockPos>> generator = (s, visitor) -> {
+            BlockPos.Mutable pos = new BlockPos.Mutable();
+            expected.forEach(position -> visitor.accept(pos.set(position)));
+        };
+
+        Object variant = new Object();
+        assertEquals(expected, visit(Vec3d.ZERO, variant, generator));
+        assertEquals(expected, visit(Vec3d.ZERO, variant, generator));
+    }
+
+    @Test
+    void variantsAreCachedApart() {
+        Vec3d size = new Vec3d(3d, 3d, 3d);
+        Sphere solid = new Sphere(ConstantVecProvider.ZERO, false);
+        Sphere hollow = new Sphere(ConstantVecProvider.ZERO, true);
+        Object solidVariant = new Object();
+        Object hollowVariant = new Object();
+        assertEquals(solid.count(size), visit(size, solidVariant, solid::generate).size());
+        assertEquals(hollow.count(size), visit(size, hollowVariant, hollow::generate).size());
+        assertEquals(solid.count(size), visit(size, solidVariant, solid::generate).size());
+    }
+
+    @Test
+    void randomSizesAreNotCached() {
+        Shape random = new Sphere(new RandomVecProvider(LuckyBlockCodecs.ONE_F, LuckyBlockCodecs.ONE_F, LuckyBlockCodecs.ONE_F), false);
+        MutableInt generated = new MutableInt();
+        Object variant = new Object();
+        visit(random, Vec3d.ZERO, variant, counting(generated, 3));
+        assertEquals(3, visit(random, Vec3d.ZERO, variant, counting(generated, 3)).size());
+        assertEquals(2, generated.intValue());
+        assertEquals(-1, ShapeMask.getCachedSize(random, Vec3d.ZERO, variant));
+    }
+
+    @Test
+    void oversizedMasksAreStreamed() {
+        MutableInt generated = new MutableInt();
+        Object variant = new Object();
+        visit(Vec3d.ZERO, variant, counting(generated, ShapeMask.MAX_POSITIONS + 1));
+        assertEquals(ShapeMask.MAX_POSITIONS + 1, visit(Vec3d.ZERO, variant, counting(generated, ShapeMask.MAX_POSITIONS + 1)).size());
+        assertEquals(2, generated.intValue());
+        assertEquals(-1, ShapeMask.getCachedSize(CONSTANT, Vec3d.ZERO, variant));
+
+        Object fits = new Object();
+        visit(Vec3d.ZERO, fits, counting(generated, ShapeMask.MAX_POSITIONS));
+        assertEquals(ShapeMask.MAX_POSITIONS, ShapeMask.getCachedSize(CONSTANT, Vec3d.ZERO, fits));
+    }
+}
@@ -0,0 +1,87 @@
+package dev.creoii.luckyblock.util.shape;
+
+import dev.creoii.luckyblock.outcome.Outcome;
+import dev.creoii.luckyblock.util.vec.ConstantVecProvider;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SphereTest {
+    private static final double[] SIZES = {.5d, 1d, 1.5d, 2d, 2.5d, 3d, 3.5d, 4d, 5.5d, 7d, 8.5d};
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+
+    private static Set<BlockPos> generate(Sphere sphere, Vec3d size) {
+        Set<BlockPos> positions = new HashSet<>();
+        sphere.generate(size, pos -> positions.add(pos.toImmutable()));
+        return positions;
+    }
+
+    @Test
+    void countMatchesGenerate() {
+        for (boolean hollow : new boolean[]{false, true}) {
+            Sphere sphere = new Sphere(ConstantVecProvider.ZERO, hollow);
+            for (double x : SIZES) {
+                for (double y : SIZES) {
+                    for (double z : SIZES) {
+                        Vec3d size = new Vec3d(x, y, z);
+                        assertEquals(generate(sphere, size).size(), sphere.count(size), size + (hollow ? " hollow" : ""));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void sampleStaysInsideTheSphere() {
+        for (boolean hollow : new boolean[]{false, true}) {
+            for (double z : SIZES) {
+                Vec3d size = new Vec3d(4.5d, 3d, z);
+                Sphere sphere = new Sphere(new ConstantVecProvider(size), hollow);
+                Set<BlockPos> positions = generate(sphere, size);
+                for (int count : new int[]{1, 5, positions.size() / 3, positions.size()}) {
+                    List<BlockPos> sampled = sphere.sample(new Outcome.Context(null, BlockPos.ORIGIN, null, null, count), count);
+                    assertEquals(Math.min(count, positions.size()), sampled.size(), size + " " + count);
+                    assertEquals(sampled.size(), new HashSet<>(sampled).size());
+                    assertTrue(positions.containsAll(sampled), size + " " + count);
+                }
+            }
+        }
+    }
+
+    @Test
+    void fewPicksFromALargeSphereSkipTheCount() {
+        Vec3d size = new Vec3d(40d, 40d, 40d);
+        Sphere sphere = new Sphere(new ConstantVecProvider(size), false) {
+            @Override
+            int count(Vec3d size) {
+                throw new AssertionError("sampled 5 positions through the full count");
+            }
+        };
+        List<BlockPos> sampled = sphere.sample(new Outcome.Context(null, BlockPos.ORIGIN, null, null, 0L), 5);
+        assertEquals(5, sampled.size());
+        assertEquals(5, new HashSet<>(sampled).size());
+        Set<BlockPos> positions = generate(sphere, size);
+        assertTrue(positions.containsAll(sampled));
+    }
+
+    @Test
+    void halfBlockSizesSampleNothing() {
+        Sphere sphere = new Sphere(new ConstantVecProvider(new Vec3d(3d, 3d, .5d)), false);
+        assertEquals(List.of(), sphere.sample(new Outcome.Context(null, BlockPos.ORIGIN, null, null, 0L), 4));
+    }
+}
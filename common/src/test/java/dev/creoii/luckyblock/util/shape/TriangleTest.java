@@ -0,0 +1,46 @@
+package dev.creoii.luckyblock.util.shape;
+
+import dev.creoii.luckyblock.util.vec.ConstantVecProvider;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TriangleTest {
+    private static final double[] SIZES = {1d, 2d, 2.5d, 3d, 4d, 5.5d, 7d};
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+    }
+
+    @Test
+    void countAndDecodeMatchGenerate() {
+        for (Triangle.Type type : Triangle.Type.values()) {
+            Triangle triangle = new Triangle(ConstantVecProvider.ZERO, type);
+            for (double x : SIZES) {
+                for (double y : SIZES) {
+                    for (double z : SIZES) {
+                        Vec3d size = new Vec3d(x, y, z);
+                        List<BlockPos> positions = new ArrayList<>();
+                        triangle.generate(size, pos -> positions.add(pos.toImmutable()));
+                        assertEquals(positions.size(), triangle.count(size), type.asString() + " " + size);
+
+                        int slice = type == Triangle.Type.POINT ? 0 : triangle.getSliceCount(size);
+                        for (int i = 0; i < positions.size(); ++i) {
+                            assertEquals(positions.get(i), triangle.decode(size, slice, i), type.asString() + " " + size + " index " + i);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package dev.creoii.luckyblock.util.template;
+
+import com.ezylang.evalex.Expression;
+import dev.creoii.luckyblock.outcome.Outcome;
+import dev.creoii.luckyblock.util.FunctionUtils;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regex and EvalEx based string parsing the templates replaced, kept to compare their output against.
+ */
+final class BaselineEvaluator {
+    private static final Pattern PARAM_PATTERN = Pattern.compile("\\{(\\w+)}");
+    private static final Pattern MATH_PATTERN = Pattern.compile("-?\\d+(\\.\\d+)?([*/+-]\\d+(\\.\\d+)?)+");
+
+    private BaselineEvaluator() {}
+
+    static String parseString(String string, Outcome.Context context) {
+        StringBuilder result = new StringBuilder();
+        Matcher matcher = PARAM_PATTERN.matcher(string);
+
+        while (matcher.find()) {
+            String param = matcher.group(1);
+
+            if (FunctionUtils.STRING_PARAMS.containsKey(param)) {
+                String replacement = FunctionUtils.STRING_PARAMS.get(param).apply(context);
+                matcher.appendReplacement(result, replacement);
+            } else if (FunctionUtils.DOUBLE_PARAMS.containsKey(param)) {
+                Number numberValue = FunctionUtils.DOUBLE_PARAMS.get(param).apply(context);
+                matcher.appendReplacement(result, String.valueOf(numberValue));
+            } else if (FunctionUtils.INT_PARAMS.containsKey(param)) {
+                Number numberValue = FunctionUtils.INT_PARAMS.get(param).apply(context);
+                matcher.appendReplacement(result, String.valueOf(numberValue));
+            } else throw new IllegalArgumentException("Error parsing param '" + param + "'");
+        }
+
+        String parsed = matcher.appendTail(result).toString();
+        return replaceIgnoreProperties(parsed);
+    }
+
+    private static String replaceIgnoreProperties(String string) {
+        String parsed = string.replaceAll("(\"Properties\"\\s*:\\s*\\{[^}]*?)\"([\\-\\d.]+)\"", "$1@@$2@@");
+        parsed = evaluateExpressions(parsed.replaceAll("\"([\\-\\d.]+)\"", "$1"));
+        return parsed.replaceAll("@@([\\-\\d.]+)@@", "\"$1\"");
+    }
+
+    private static String evaluateExpressions(String input) {
+        Matcher matcher = MATH_PATTERN.matcher(input);
+
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            try {
+                matcher.appendReplacement(result, new Expression(matcher.group()).evaluate().getStringValue());
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Error evaluating math expression: " + matcher.group(), e);
+            }
+        }
+        return matcher.appendTail(result).toString().replaceAll("\"([\\-\\d\\.]+)\"", "$1");
+    }
+}
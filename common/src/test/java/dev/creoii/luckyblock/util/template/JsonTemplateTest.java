@@ -0,0 +1,62 @@
+package dev.creoii.luckyblock.util.template;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonTemplateTest {
+    private static void assertMatchesBaseline(String json) {
+        JsonElement element = JsonParser.parseString(json);
+        String expected = JsonParser.parseString(BaselineEvaluator.parseString(element.toString(), StringTemplateTest.createContext(3L))).toString();
+        assertEquals(expected, JsonTemplate.compile(element).render(StringTemplateTest.createContext(3L)).toString(), json);
+    }
+
+    @Test
+    void stringsMatchBaseline() {
+        assertMatchesBaseline("{\"type\":\"lucky:entity\",\"entity_type\":\"minecraft:sheep\",\"nbt\":{\"Tags\":[\"lucky_{randomDyeColor}\"],\"CustomName\":\"{playerName}\"}}");
+        assertMatchesBaseline("{\"type\":\"lucky:command\",\"command\":\"summon minecraft:zombie {blockPosX} {blockPosY} {blockPosZ}\"}");
+    }
+
+    @Test
+    void constantNumbersMatchBaseline() {
+        assertMatchesBaseline("{\"type\":\"lucky:item\",\"count\":\"5\",\"chance\":\"0.5\",\"luck\":\"-2\"}");
+        assertMatchesBaseline("{\"type\":\"lucky:block\",\"count\":\"2*3\",\"state\":{\"Name\":\"minecraft:wheat\",\"Properties\":{\"age\":\"7\"}}}");
+    }
+
+    @Test
+    void expressionsMatchBaseline() {
+        assertMatchesBaseline("{\"type\":\"lucky:entity\",\"nbt\":{\"Age\":\"{blockPosY}+25\",\"Health\":\"{blockPosX}/4\",\"Fuse\":\"{blockPosX}*3\"}}");
+        assertMatchesBaseline("{\"pos\":[\"{blockPosX}-1\",\"{blockPosY}\",\"{blockPosZ}+1\"],\"motion\":\"{blockY}*2\"}");
+        assertMatchesBaseline("{\"count\":\"{blockPosY}/16\",\"offset\":\"{blockX}+1\",\"depth\":\"-{blockPosY}\"}");
+    }
+
+    @Test
+    void wholeExpressionsRenderWithoutFraction() {
+        JsonTemplate template = JsonTemplate.compile(JsonParser.parseString("{\"Age\":\"{blockPosY}+25\",\"Half\":\"{blockPosX}/4\"}"));
+        assertEquals("{\"Age\":89,\"Half\":2.5}", template.render(StringTemplateTest.createContext(0L)).toString());
+    }
+
+    @Test
+    void divisionByZeroFails() {
+        JsonTemplate template = JsonTemplate.compile(JsonParser.parseString("{\"Age\":\"{blockPosY}/0\"}"));
+        assertThrows(IllegalArgumentException.class, () -> template.render(StringTemplateTest.createContext(0L)));
+        assertThrows(IllegalArgumentException.class, () -> BaselineEvaluator.parseString("{\"Age\":\"{blockPosY}/0\"}", StringTemplateTest.createContext(0L)));
+    }
+
+    @Test
+    void propertiesStayStrings() {
+        JsonTemplate template = JsonTemplate.compile(JsonParser.parseString("{\"Properties\":{\"age\":\"7\",\"distance\":\"{blockPosY}-60\"}}"));
+        assertEquals("{\"Properties\":{\"age\":\"7\",\"distance\":\"4\"}}", template.render(StringTemplateTest.createContext(0L)).toString());
+    }
+
+    @Test
+    void constantTreesAreShared() {
+        JsonTemplate template = JsonTemplate.compile(JsonParser.parseString("{\"type\":\"lucky:item\",\"items\":[\"minecraft:diamond\"]}"));
+        assertTrue(template.isConstant());
+        assertEquals(template.render(null), template.render(null));
+    }
+}
@@ -0,0 +1,53 @@
+package dev.creoii.luckyblock.util.template;
+
+import com.ezylang.evalex.Expression;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MathExpressionTest {
+    private static final List<String> CONSTANT_SHAPES = List.of("1+2", "10-4-3", "2+3*4", "2*3+4", "7/2", "1.5*2", "-3+5", "100/8/5", "0.25*4", "3-10", "-2*-3", "12/4*3");
+
+    private static String render(double value) {
+        StringBuilder buffer = new StringBuilder();
+        MathExpression.append(value, buffer);
+        return buffer.toString();
+    }
+
+    @Test
+    void constantsMatchEvalEx() throws Exception {
+        for (String shape : CONSTANT_SHAPES) {
+            MathExpression expression = MathExpression.compile(shape);
+            assertTrue(expression.isConstant(), shape);
+            assertEquals(new Expression(shape).evaluate().getStringValue(), render(expression.evaluate(null)), shape);
+        }
+    }
+
+    @Test
+    void paramsMatchEvalEx() throws Exception {
+        for (String shape : List.of("blockPosY+25", "blockPosX*2-blockPosZ", "blockPosX/4", "blockY*2", "-blockPosZ+1")) {
+            MathExpression expression = MathExpression.compile(shape);
+            assertFalse(expression.isConstant(), shape);
+            String expected = new Expression(shape).with("blockPosX", 10).with("blockPosY", 64).with("blockPosZ", -5).with("blockY", 64.5d).evaluate().getStringValue();
+            assertEquals(expected, render(expression.evaluate(StringTemplateTest.createContext(0L))), shape);
+        }
+    }
+
+    @Test
+    void wholeNumbersBecomeLongs() {
+        assertEquals(89L, MathExpression.toNumber(89d));
+        assertEquals(-4L, MathExpression.toNumber(-4d));
+        assertEquals(2.5d, MathExpression.toNumber(2.5d));
+        assertEquals("89", render(89d));
+        assertEquals("2.5", render(2.5d));
+    }
+
+    @Test
+    void divisionByZeroIsNotFolded() {
+        assertFalse(MathExpression.compile("5/0").isConstant());
+    }
+}
@@ -0,0 +1,95 @@
+package dev.creoii.luckyblock.util.template;
+
+import dev.creoii.luckyblock.outcome.Outcome;
+import dev.creoii.luckyblock.util.FunctionUtils;
+import net.minecraft.util.math.BlockPos;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StringTemplateTest {
+    private static final List<String> STRINGS = List.of(
+            "say hello",
+            "summon minecraft:zombie {blockPosX} {blockPosY} {blockPosZ}",
+            "tp @p {blockPosX} {blockPosY}+25 {blockPosZ}",
+            "fill {blockPosX}-2 {blockPosY} {blockPosZ}-2 {blockPosX}+2 {blockPosY}+3 {blockPosZ}+2 minecraft:glass",
+            "{blockPosX}*2",
+            "{blockPosX}/4",
+            "{blockX}+1",
+            "{blockY}*2",
+            "{blockPosZ}-2",
+            "1.5*2",
+            "7/2",
+            "2+3*4",
+            "10-4-3",
+            "level 5-3",
+            "item_1 x2",
+            "particle minecraft:dust {randomDyeColor} {randomWood}",
+            "{playerName} broke it at {playerPosX},{playerPosY},{playerPosZ}"
+    );
+
+    static Outcome.Context createContext(long seed) {
+        return new Outcome.Context(null, new BlockPos(10, 64, -5), null, null, seed);
+    }
+
+    @Test
+    void renderMatchesBaseline() {
+        for (String string : STRINGS) {
+            assertEquals(BaselineEvaluator.parseString(string, createContext(7L)), StringTemplate.compile(string).render(createContext(7L)), string);
+        }
+    }
+
+    @Test
+    void parseStringMatchesBaseline() {
+        for (String string : STRINGS) {
+            assertEquals(BaselineEvaluator.parseString(string, createContext(7L)), FunctionUtils.parseString(string, createContext(7L)), string);
+        }
+    }
+
+    @Test
+    void parseStringReusesCompiledTemplates() {
+        String string = "summon minecraft:creeper {blockPosX} {blockPosY}+1 {blockPosZ}";
+        assertSame(FunctionUtils.getTemplate(string), FunctionUtils.getTemplate(string));
+    }
+
+    @Test
+    void constantExpressionsAreFolded() {
+        assertTrue(StringTemplate.compile("give @p diamond 2*3").isConstant());
+        assertEquals("give @p diamond 6", StringTemplate.compile("give @p diamond 2*3").render(null));
+        assertFalse(StringTemplate.compile("{blockPosY}+1").isConstant());
+    }
+
+    @Test
+    void numericTemplates() {
+        assertTrue(StringTemplate.compile("{blockPosY}").isNumeric());
+        assertTrue(StringTemplate.compile("{blockPosY}+25").isNumeric());
+        assertFalse(StringTemplate.compile("{randomDyeColor}").isNumeric());
+        assertFalse(StringTemplate.compile("y {blockPosY}").isNumeric());
+    }
+
+    @Test
+    void wholeNumbersRenderWithoutFraction() {
+        assertEquals(89L, StringTemplate.compile("{blockPosY}+25").renderNumber(createContext(0L)));
+        assertEquals(2.5d, StringTemplate.compile("{blockPosX}/4").renderNumber(createContext(0L)));
+        assertEquals(64, StringTemplate.compile("{blockPosY}").renderNumber(createContext(0L)));
+    }
+
+    @Test
+    void divisionByZeroFails() {
+        assertThrows(IllegalArgumentException.class, () -> StringTemplate.compile("tp @p {blockPosX}/0 ~ ~").render(createContext(0L)));
+        assertThrows(IllegalArgumentException.class, () -> StringTemplate.compile("5/0").render(createContext(0L)));
+        assertThrows(IllegalArgumentException.class, () -> BaselineEvaluator.parseString("tp @p {blockPosX}/0 ~ ~", createContext(0L)));
+    }
+
+    @Test
+    void unknownParamIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> StringTemplate.compile("{notAParam}"));
+        assertThrows(IllegalArgumentException.class, () -> BaselineEvaluator.parseString("{notAParam}", createContext(0L)));
+    }
+}
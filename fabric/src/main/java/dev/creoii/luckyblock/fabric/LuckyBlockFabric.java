@@ -2,12 +2,16 @@ package dev.creoii.luckyblock.fabric;
 
 import dev.creoii.luckyblock.LuckyBlockManager;
 import dev.creoii.luckyblock.block.LuckyBlockEntity;
+import dev.creoii.luckyblock.command.LuckyCommand;
 import dev.creoii.luckyblock.outcome.OutcomeType;
 import dev.creoii.luckyblock.util.shape.ShapeType;
 import dev.creoii.luckyblock.util.vec.VecProviderType;
 import net.fabricmc.api.ModInitializer;
 
 import dev.creoii.luckyblock.LuckyBlockMod;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.itemgroup.v1.ItemGroupEvents;
 import net.fabricmc.fabric.api.resource.IdentifiableResourceReloadListener;
@@ -37,7 +41,19 @@ public final class LuckyBlockFabric implements ModInitializer {
         register();
         LuckyBlockMod.init(LUCKY_BLOCK_MANAGER);
 
+        ServerTickEvents.END_SERVER_TICK.register(LuckyBlockMod.PLAYER_INDEX::tick);
         ServerTickEvents.END_SERVER_TICK.register(LuckyBlockMod.OUTCOME_MANAGER::tickDelays);
+        ServerTickEvents.END_SERVER_TICK.register(LuckyBlockMod.SPAWN_SCHEDULER::tick);
+        ServerTickEvents.END_SERVER_TICK.register(LuckyBlockMod.EFFECT_COALESCER::flush);
+        ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> LuckyBlockMod.OUTCOME_MANAGER.restoreDelays(world, chunk.getPos()));
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            LuckyBlockMod.OUTCOME_MANAGER.clearDelays();
+            LuckyBlockMod.EFFECT_COALESCER.clear();
+            LuckyBlockMod.PLAYER_INDEX.clear();
+            LuckyBlockMod.SPAWN_SCHEDULER.clear();
+            LuckyBlockMod.DENSITY_GUARD.clear();
+        });
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> LuckyCommand.register(dispatcher));
 
         ItemGroupEvents.modifyEntriesEvent(ItemGroups.BUILDING_BLOCKS).register(entries -> {
             for (Item item : LuckyBlockMod.luckyBlockManager.getAllItems()) {
@@ -4,6 +4,7 @@ import dev.creoii.luckyblock.LuckyBlockContainer;
 import dev.creoii.luckyblock.LuckyBlockManager;
 import dev.creoii.luckyblock.block.LuckyBlock;
 import dev.creoii.luckyblock.block.LuckyBlockEntity;
+import dev.creoii.luckyblock.command.LuckyCommand;
 import dev.creoii.luckyblock.outcome.OutcomeType;
 import dev.creoii.luckyblock.recipe.LuckyRecipe;
 import dev.creoii.luckyblock.util.shape.ShapeType;
@@ -20,6 +21,7 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.recipe.SpecialRecipeSerializer;
 import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.Util;
 import net.minecraft.util.dynamic.Codecs;
@@ -30,6 +32,9 @@ import dev.creoii.luckyblock.LuckyBlockMod;
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.AddReloadListenerEvent;
 import net.neoforged.neoforge.event.BuildCreativeModeTabContentsEvent;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
 import net.neoforged.neoforge.event.tick.ServerTickEvent;
 import net.neoforged.neoforge.registries.RegisterEvent;
 
@@ -47,6 +52,9 @@ public final class LuckyBlockNeoForge {
         NeoForge.EVENT_BUS.addListener(LuckyBlockNeoForge::onAddReloadListeners);
         modBus.addListener(LuckyBlockNeoForge::onBuildCreativeModTabContents);
         NeoForge.EVENT_BUS.addListener(LuckyBlockNeoForge::onServerTick);
+        NeoForge.EVENT_BUS.addListener(LuckyBlockNeoForge::onChunkLoad);
+        NeoForge.EVENT_BUS.addListener(LuckyBlockNeoForge::onServerStopped);
+        NeoForge.EVENT_BUS.addListener(LuckyBlockNeoForge::onRegisterCommands);
     }
 
     private static void onRegister(RegisterEvent event) {
@@ -101,7 +109,28 @@ public final class LuckyBlockNeoForge {
     }
 
     private static void onServerTick(ServerTickEvent.Post event) {
+        LuckyBlockMod.PLAYER_INDEX.tick(event.getServer());
         LuckyBlockMod.OUTCOME_MANAGER.tickDelays(event.getServer());
+        LuckyBlockMod.SPAWN_SCHEDULER.tick(event.getServer());
+        LuckyBlockMod.EFFECT_COALESCER.flush(event.getServer());
+    }
+
+    private static void onChunkLoad(ChunkEvent.Load event) {
+        if (event.getLevel() instanceof ServerWorld serverWorld) {
+            LuckyBlockMod.OUTCOME_MANAGER.restoreDelays(serverWorld, event.getChunk().getPos());
+        }
+    }
+
+    private static void onServerStopped(ServerStoppedEvent event) {
+        LuckyBlockMod.OUTCOME_MANAGER.clearDelays();
+        LuckyBlockMod.EFFECT_COALESCER.clear();
+        LuckyBlockMod.PLAYER_INDEX.clear();
+        LuckyBlockMod.SPAWN_SCHEDULER.clear();
+        LuckyBlockMod.DENSITY_GUARD.clear();
+    }
+
+    private static void onRegisterCommands(RegisterCommandsEvent event) {
+        LuckyCommand.register(event.getDispatcher());
     }
 
     public void register() {